@@ -0,0 +1,74 @@
+package com.example.carpark.benchmark;
+
+import com.example.carpark.common.geo.Svy21Projection;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversions per second of the SVY21 projection compared with the linear BigDecimal
+ * approximation used by the importer before the projection was introduced
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CoordinateConversionBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    // Parameters of the previous linear approximation
+    private static final double LEGACY_ORIGIN_LAT = 1.3666666666666667;
+    private static final double LEGACY_ORIGIN_LON = 103.83333333333333;
+    private static final double LEGACY_ORIGIN_N = 38744.572;
+    private static final double LEGACY_ORIGIN_E = 28001.642;
+    private static final double LEGACY_FACTOR_LAT = 0.0000089831;
+    private static final double LEGACY_FACTOR_LON = 0.0000111319;
+
+    private final Svy21Projection projection = new Svy21Projection();
+    private final double[] svy21 = new double[BATCH_SIZE * 2];
+    private final double[] wgs84 = new double[BATCH_SIZE * 2];
+    private final BigDecimal[] eastings = new BigDecimal[BATCH_SIZE];
+    private final BigDecimal[] northings = new BigDecimal[BATCH_SIZE];
+
+    @Setup
+    public void setUp() {
+        // Spread the sample points across Singapore's SVY21 extent
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            double easting = 11000 + (i * 337.7) % 40000;
+            double northing = 27000 + (i * 211.3) % 23000;
+            svy21[i * 2] = easting;
+            svy21[i * 2 + 1] = northing;
+            eastings[i] = BigDecimal.valueOf(easting);
+            northings[i] = BigDecimal.valueOf(northing);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void legacyLinearBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            double lat = LEGACY_ORIGIN_LAT + ((northings[i].doubleValue() - LEGACY_ORIGIN_N) * LEGACY_FACTOR_LAT);
+            double lon = LEGACY_ORIGIN_LON + ((eastings[i].doubleValue() - LEGACY_ORIGIN_E) * LEGACY_FACTOR_LON);
+            blackhole.consume(new BigDecimal[] {
+                    BigDecimal.valueOf(lat).setScale(8, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(lon).setScale(8, RoundingMode.HALF_UP)
+            });
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] projectionBatch() {
+        projection.toWgs84(svy21, wgs84, BATCH_SIZE);
+        return wgs84;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.carpark.benchmark;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.redis.CompactCarParkRedisSerializer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Encode and decode time of a cached nearest result with the JSON serializer compared with
+ * the compact car park format. The encoded size of each is reported as the bytes counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RedisValueSerializerBenchmark {
+
+    @Param({ "json", "binary" })
+    public String codec;
+
+    @Param({ "10", "100" })
+    public int resultSize;
+
+    private RedisSerializer<Object> serializer;
+    private List<CarParkResponseDTO> results;
+    private byte[] encoded;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        serializer = "binary".equals(codec)
+                ? new CompactCarParkRedisSerializer()
+                : new GenericJackson2JsonRedisSerializer();
+        results = new ArrayList<>(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            results.add(new CarParkResponseDTO(
+                    "BLK " + (100 + i) + " JALAN BUKIT MERAH",
+                    BigDecimal.valueOf(1.28 + i * 0.0007).setScale(8, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(103.82 + i * 0.0009).setScale(8, RoundingMode.HALF_UP),
+                    200 + i,
+                    i % 150));
+        }
+        encoded = serializer.serialize(results);
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize size) {
+        byte[] bytes = serializer.serialize(results);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -13,7 +13,14 @@ public final class CarParkConstants {
     public static final String API_BASE_PATH = "/v1/carparks";
     public static final String NEAREST_ENDPOINT = "/nearest";
     public static final String IMPORT_ENDPOINT = "/import";
+    public static final String IMPORT_UPLOAD_ENDPOINT = "/import/upload";
     public static final String UPDATE_AVAILABILITY_ENDPOINT = "/update-availability";
+    public static final String EXPORT_ENDPOINT = "/export";
+    public static final String VIEWPORT_ENDPOINT = "/viewport";
+    public static final String CLUSTER_TILE_ENDPOINT = "/tiles/{z}/{x}/{y}";
+    // Response header carrying the cache generation a nearest page was read from
+    public static final String CACHE_GENERATION_HEADER = "X-Cache-Generation";
+    public static final String CORRIDOR_ENDPOINT = "/corridor";
     public static final String HEALTH_ENDPOINT = "/health";
 
     // External API Configuration
@@ -38,8 +45,30 @@ public final class CarParkConstants {
     public static final int CSV_BATCH_SIZE = 100;
     public static final String CSV_ENCODING = "UTF-8";
 
+    // Spatial Cell Configuration
+    public static final int GEOHASH_PRECISION = 9;
+    public static final int GEOHASH_SEARCH_START_PRECISION = 6;
+    public static final int GEOHASH_SEARCH_MIN_PRECISION = 4;
+    // Each map tile is split into 2^CLUSTER_CELL_BITS cells per axis, one cluster per occupied cell
+    public static final int CLUSTER_CELL_BITS = 3;
+    public static final int CLUSTER_MAX_ZOOM = 18;
+    // Largest route a corridor search buffers; each vertex adds work to the buffer and every lookup
+    public static final int CORRIDOR_MAX_VERTICES = 5000;
+    public static final double CORRIDOR_MAX_ROUTE_METERS = 100_000;
+
     // Cache Configuration
     public static final int CACHE_TTL_MINUTES = 15;
+    // Background refreshes of stale nearest results; refreshes beyond the queue are skipped
+    public static final int CACHE_REFRESH_THREADS = 2;
+    public static final int CACHE_REFRESH_QUEUE_CAPACITY = 100;
+
+    // Export Configuration
+    // Longest a database export may hold its connection, from the query to the last row written
+    public static final int EXPORT_TIMEOUT_SECONDS = 300;
+
+    // Parking Rules
+    // Free, short-term and night parking hours are local times in this zone
+    public static final String CAR_PARK_TIME_ZONE = "Asia/Singapore";
 
     // Error Messages
     public static final String ERROR_INVALID_COORDINATES = "Invalid coordinates provided";
@@ -48,6 +77,12 @@ public final class CarParkConstants {
     public static final String ERROR_DATABASE_OPERATION_FAILED = "Database operation failed";
     public static final String ERROR_CSV_IMPORT_FAILED = "CSV import failed";
     public static final String ERROR_AVAILABILITY_UPDATE_FAILED = "Availability update failed";
+    public static final String ERROR_INVALID_EXPORT_FORMAT = "Export format must be ndjson or csv";
+    public static final String ERROR_INVALID_VIEWPORT = "Viewport minimum must not exceed its maximum";
+    public static final String ERROR_INVALID_TILE = "Tile coordinates are out of range";
+    public static final String ERROR_INVALID_POLYLINE = "Polyline must be a valid encoded route with at least two points";
+    public static final String ERROR_ROUTE_TOO_LONG = "Route must have at most " + CORRIDOR_MAX_VERTICES
+            + " points and be at most " + (int) (CORRIDOR_MAX_ROUTE_METERS / 1000) + " km long";
 
     // Success Messages
     public static final String SUCCESS_IMPORT_COMPLETED = "Car park data streaming import completed successfully";
@@ -0,0 +1,17 @@
+package com.example.carpark.common.event;
+
+/**
+ * Published after car park rows or availability have been written to the database
+ */
+public class CarParkDataRefreshedEvent {
+
+    private final String source;
+
+    public CarParkDataRefreshedEvent(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
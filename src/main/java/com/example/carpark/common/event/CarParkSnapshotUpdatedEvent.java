@@ -0,0 +1,19 @@
+package com.example.carpark.common.event;
+
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+
+/**
+ * Published after the in-memory car park snapshot has been replaced
+ */
+public class CarParkSnapshotUpdatedEvent {
+
+    private final CarParkSnapshot snapshot;
+
+    public CarParkSnapshotUpdatedEvent(CarParkSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public CarParkSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -9,6 +9,9 @@ public enum ErrorCode {
     INVALID_COORDINATES("INVALID_COORDINATES", 400),
     INVALID_PAGE_PARAMETERS("INVALID_PAGE_PARAMETERS", 400),
     INVALID_SEARCH_RADIUS("INVALID_SEARCH_RADIUS", 400),
+    INVALID_EXPORT_FORMAT("INVALID_EXPORT_FORMAT", 400),
+    INVALID_TILE_COORDINATES("INVALID_TILE_COORDINATES", 400),
+    INVALID_POLYLINE("INVALID_POLYLINE", 400),
 
     // Not Found Errors (404)
     CAR_PARK_NOT_FOUND("CAR_PARK_NOT_FOUND", 404),
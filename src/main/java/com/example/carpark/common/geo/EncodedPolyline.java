@@ -0,0 +1,55 @@
+package com.example.carpark.common.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.locationtech.jts.geom.Coordinate;
+
+/**
+ * Decoder for the encoded polyline format used by Google and OSRM route responses.
+ * Each point is a pair of zig-zag varints of the latitude and longitude delta at 1e-5 degree precision.
+ */
+public final class EncodedPolyline {
+
+    private static final double PRECISION = 1e5;
+
+    private EncodedPolyline() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Decode a polyline into coordinates with x as longitude and y as latitude
+     */
+    public static Coordinate[] decode(String encoded) {
+        List<Coordinate> coordinates = new ArrayList<>(encoded.length() / 4);
+        int[] position = { 0 };
+        long latitude = 0;
+        long longitude = 0;
+        while (position[0] < encoded.length()) {
+            latitude += nextValue(encoded, position);
+            longitude += nextValue(encoded, position);
+            if (Math.abs(latitude) > 90 * PRECISION || Math.abs(longitude) > 180 * PRECISION) {
+                throw new IllegalArgumentException("Polyline point out of range at offset " + position[0]);
+            }
+            coordinates.add(new Coordinate(longitude / PRECISION, latitude / PRECISION));
+        }
+        return coordinates.toArray(new Coordinate[0]);
+    }
+
+    private static long nextValue(String encoded, int[] position) {
+        long result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (position[0] >= encoded.length() || shift > 30) {
+                throw new IllegalArgumentException("Truncated polyline at offset " + position[0]);
+            }
+            chunk = encoded.charAt(position[0]++) - 63;
+            if (chunk < 0 || chunk > 63) {
+                throw new IllegalArgumentException("Invalid polyline character at offset " + (position[0] - 1));
+            }
+            result |= (long) (chunk & 0x1F) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
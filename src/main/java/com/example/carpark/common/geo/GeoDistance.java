@@ -0,0 +1,26 @@
+package com.example.carpark.common.geo;
+
+/**
+ * Great-circle distance helpers on a spherical earth, matching MySQL's ST_Distance_Sphere
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_METERS = 6370986.0;
+
+    private GeoDistance() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Haversine distance in metres between two latitude/longitude points
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double h = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+}
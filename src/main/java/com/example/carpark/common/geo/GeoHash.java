@@ -0,0 +1,140 @@
+package com.example.carpark.common.geo;
+
+/**
+ * Geohash encoding used as a B-tree friendly spatial cell key.
+ * Every prefix of a geohash identifies the enclosing cell, so a cell is a contiguous
+ * key range ({@code LIKE 'prefix%'}) on an ordinary index.
+ */
+public final class GeoHash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int BITS_PER_CHAR = 5;
+    public static final int MAX_PRECISION = 12;
+
+    private GeoHash() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Encode a latitude/longitude into a geohash of the given length
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+
+        double minLat = -90.0;
+        double maxLat = 90.0;
+        double minLon = -180.0;
+        double maxLon = 180.0;
+        boolean evenBit = true;
+        char[] hash = new char[precision];
+
+        for (int i = 0; i < precision; i++) {
+            int index = 0;
+            for (int bit = 0; bit < BITS_PER_CHAR; bit++) {
+                index <<= 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index |= 1;
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index |= 1;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[i] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Decode the cell bounds of a geohash as {@code {minLat, minLon, maxLat, maxLon}}
+     */
+    public static double[] bounds(String geohash) {
+        double minLat = -90.0;
+        double maxLat = 90.0;
+        double minLon = -180.0;
+        double maxLon = 180.0;
+        boolean evenBit = true;
+
+        for (int i = 0; i < geohash.length(); i++) {
+            int index = indexOf(geohash.charAt(i));
+            for (int bit = BITS_PER_CHAR - 1; bit >= 0; bit--) {
+                boolean set = ((index >> bit) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] { minLat, minLon, maxLat, maxLon };
+    }
+
+    /**
+     * Return the cell itself followed by its eight neighbours at the same precision
+     */
+    public static String[] cellWithNeighbours(String geohash) {
+        double[] bounds = bounds(geohash);
+        double height = bounds[2] - bounds[0];
+        double width = bounds[3] - bounds[1];
+        double centerLat = (bounds[0] + bounds[2]) / 2;
+        double centerLon = (bounds[1] + bounds[3]) / 2;
+        int precision = geohash.length();
+
+        String[] cells = new String[9];
+        int i = 0;
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double lat = Math.max(-90.0, Math.min(90.0, centerLat + dLat * height));
+                double lon = wrapLongitude(centerLon + dLon * width);
+                cells[i++] = (dLat == 0 && dLon == 0) ? geohash : encode(lat, lon, precision);
+            }
+        }
+        // Keep the centre cell first so callers can scan it before the ring
+        cells[4] = cells[0];
+        cells[0] = geohash;
+        return cells;
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude >= 180.0) {
+            return longitude - 360.0;
+        }
+        if (longitude < -180.0) {
+            return longitude + 360.0;
+        }
+        return longitude;
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < BASE32.length; i++) {
+            if (BASE32[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid geohash character: " + c);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.carpark.common.geo;
+
+/**
+ * Inverse Transverse Mercator projection from SVY21 (EPSG:3414) grid coordinates to
+ * WGS84 latitude/longitude.
+ * All ellipsoid and origin dependent terms are precomputed once, so conversions only
+ * use primitive arithmetic and never allocate.
+ */
+public final class Svy21Projection {
+
+    // WGS84 ellipsoid
+    private static final double SEMI_MAJOR_AXIS = 6378137.0;
+    private static final double FLATTENING = 1.0 / 298.257223563;
+
+    // SVY21 projection parameters (origin at 1°22'N, 103°50'E)
+    public static final double ORIGIN_LATITUDE = 1.0 + (22.0 / 60.0);
+    public static final double ORIGIN_LONGITUDE = 103.0 + (50.0 / 60.0);
+    public static final double FALSE_NORTHING = 38744.572;
+    public static final double FALSE_EASTING = 28001.642;
+    private static final double SCALE_FACTOR = 1.0;
+
+    private final double falseNorthing;
+    private final double falseEasting;
+    private final double originLongitudeRad;
+
+    private final double e2;
+    private final double originMeridionalArc;
+    private final double sigmaFactor;
+
+    // Footpoint latitude series coefficients
+    private final double footpoint2;
+    private final double footpoint4;
+    private final double footpoint6;
+    private final double footpoint8;
+
+    public Svy21Projection() {
+        this(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, FALSE_NORTHING, FALSE_EASTING);
+    }
+
+    public Svy21Projection(double originLatitude, double originLongitude, double falseNorthing,
+            double falseEasting) {
+        this.falseNorthing = falseNorthing;
+        this.falseEasting = falseEasting;
+        this.originLongitudeRad = Math.toRadians(originLongitude);
+
+        double a = SEMI_MAJOR_AXIS;
+        double b = a * (1 - FLATTENING);
+        this.e2 = (2 * FLATTENING) - (FLATTENING * FLATTENING);
+
+        double e4 = e2 * e2;
+        double e6 = e4 * e2;
+        double a0 = 1 - (e2 / 4) - (3 * e4 / 64) - (5 * e6 / 256);
+        double a2 = (3.0 / 8.0) * (e2 + (e4 / 4) + (15 * e6 / 128));
+        double a4 = (15.0 / 256.0) * (e4 + (3 * e6 / 4));
+        double a6 = 35 * e6 / 3072;
+        double originLatRad = Math.toRadians(originLatitude);
+        this.originMeridionalArc = a * ((a0 * originLatRad)
+                - (a2 * Math.sin(2 * originLatRad))
+                + (a4 * Math.sin(4 * originLatRad))
+                - (a6 * Math.sin(6 * originLatRad)));
+
+        double n = (a - b) / (a + b);
+        double n2 = n * n;
+        double n3 = n2 * n;
+        double n4 = n2 * n2;
+        double g = a * (1 - n) * (1 - n2) * (1 + (9 * n2 / 4) + (225 * n4 / 64)) * (Math.PI / 180);
+        this.sigmaFactor = Math.PI / (180 * g);
+
+        this.footpoint2 = (3 * n / 2) - (27 * n3 / 32);
+        this.footpoint4 = (21 * n2 / 16) - (55 * n4 / 32);
+        this.footpoint6 = 151 * n3 / 96;
+        this.footpoint8 = 1097 * n4 / 512;
+    }
+
+    /**
+     * Convert interleaved SVY21 pairs {@code [easting0, northing0, easting1, ...]} into interleaved
+     * WGS84 pairs {@code [latitude0, longitude0, latitude1, ...]}.
+     * The output array may be reused across calls; nothing is allocated.
+     */
+    public void toWgs84(double[] svy21, double[] wgs84, int count) {
+        for (int i = 0; i < count; i++) {
+            int offset = i * 2;
+            toWgs84(svy21[offset], svy21[offset + 1], wgs84, offset);
+        }
+    }
+
+    /**
+     * Convert a single SVY21 easting/northing into latitude/longitude degrees written at
+     * {@code out[offset]} and {@code out[offset + 1]}
+     */
+    public void toWgs84(double easting, double northing, double[] out, int offset) {
+        double a = SEMI_MAJOR_AXIS;
+        double k = SCALE_FACTOR;
+
+        double meridionalArc = originMeridionalArc + ((northing - falseNorthing) / k);
+        double sigma = meridionalArc * sigmaFactor;
+
+        double footpointLat = sigma
+                + (footpoint2 * Math.sin(2 * sigma))
+                + (footpoint4 * Math.sin(4 * sigma))
+                + (footpoint6 * Math.sin(6 * sigma))
+                + (footpoint8 * Math.sin(8 * sigma));
+
+        double sinLat = Math.sin(footpointLat);
+        double sin2Lat = sinLat * sinLat;
+        double denominator = 1 - (e2 * sin2Lat);
+        double sqrtDenominator = Math.sqrt(denominator);
+
+        double rho = a * (1 - e2) / (denominator * sqrtDenominator);
+        double nu = a / sqrtDenominator;
+        double psi = nu / rho;
+        double psi2 = psi * psi;
+        double psi3 = psi2 * psi;
+        double psi4 = psi3 * psi;
+
+        double t = Math.tan(footpointLat);
+        double t2 = t * t;
+        double t4 = t2 * t2;
+        double t6 = t4 * t2;
+
+        double eastingOffset = easting - falseEasting;
+        double x = eastingOffset / (k * nu);
+        double x2 = x * x;
+        double x3 = x2 * x;
+        double x5 = x3 * x2;
+        double x7 = x5 * x2;
+
+        double latFactor = t / (k * rho);
+        double latTerm1 = latFactor * ((eastingOffset * x) / 2);
+        double latTerm2 = latFactor * ((eastingOffset * x3) / 24)
+                * ((-4 * psi2) + (9 * psi * (1 - t2)) + (12 * t2));
+        double latTerm3 = latFactor * ((eastingOffset * x5) / 720)
+                * ((8 * psi4 * (11 - 24 * t2)) - (12 * psi3 * (21 - 71 * t2))
+                        + (15 * psi2 * (15 - 98 * t2 + 15 * t4)) + (180 * psi * (5 * t2 - 3 * t4))
+                        + (360 * t4));
+        double latTerm4 = latFactor * ((eastingOffset * x7) / 40320)
+                * (1385 - (3633 * t2) + (4095 * t4) + (1575 * t6));
+        double latitude = footpointLat - latTerm1 + latTerm2 - latTerm3 + latTerm4;
+
+        double secLat = 1 / Math.cos(footpointLat);
+        double lonTerm1 = x * secLat;
+        double lonTerm2 = ((x3 * secLat) / 6) * (psi + (2 * t2));
+        double lonTerm3 = ((x5 * secLat) / 120)
+                * ((-4 * psi3 * (1 - 6 * t2)) + (psi2 * (9 - 68 * t2)) + (72 * psi * t2) + (24 * t4));
+        double lonTerm4 = ((x7 * secLat) / 5040) * (61 + (662 * t2) + (1320 * t4) + (720 * t6));
+        double longitude = originLongitudeRad + lonTerm1 - lonTerm2 + lonTerm3 - lonTerm4;
+
+        out[offset] = Math.toDegrees(latitude);
+        out[offset + 1] = Math.toDegrees(longitude);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.carpark.common.geo;
+
+/**
+ * Web Mercator (EPSG:3857) helpers for slippy-map z/x/y tiles
+ */
+public final class WebMercator {
+
+    // Latitude at which the projected world becomes square
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Longitude as a fraction of the world width, from 0 at 180°W to 1 at 180°E
+     */
+    public static double x(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    /**
+     * Latitude as a fraction of the world height, from 0 at the top edge to 1 at the bottom edge
+     */
+    public static double y(double latitude) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        return (1.0 - Math.log(Math.tan(radians) + 1.0 / Math.cos(radians)) / Math.PI) / 2.0;
+    }
+
+    /**
+     * Index of the cell holding a world fraction on a grid of 2^zoom cells per axis
+     */
+    public static int cell(double fraction, int zoom) {
+        int cells = 1 << zoom;
+        return Math.max(0, Math.min(cells - 1, (int) Math.floor(fraction * cells)));
+    }
+}
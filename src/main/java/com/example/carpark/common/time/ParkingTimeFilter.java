@@ -0,0 +1,66 @@
+package com.example.carpark.common.time;
+
+import java.time.LocalDateTime;
+
+/**
+ * A moment to evaluate parking rules at, resolved to its weekday and half-hour slot, and whether
+ * parking must be free then or only allowed (short-term or night parking)
+ */
+public final class ParkingTimeFilter {
+
+    private final int day;
+    private final int slot;
+    private final boolean publicHoliday;
+    private final boolean free;
+
+    private ParkingTimeFilter(int day, int slot, boolean publicHoliday, boolean free) {
+        this.day = day;
+        this.slot = slot;
+        this.publicHoliday = publicHoliday;
+        this.free = free;
+    }
+
+    /**
+     * Filter for a local date and time in the car parks' time zone
+     */
+    public static ParkingTimeFilter of(LocalDateTime localTime, boolean publicHoliday, boolean free) {
+        return new ParkingTimeFilter(
+                localTime.getDayOfWeek().getValue() - 1,
+                TimeWindowRule.slotOf(localTime.getHour(), localTime.getMinute()),
+                publicHoliday,
+                free);
+    }
+
+    /**
+     * Whether a compiled rule applies at this moment
+     */
+    public boolean isAllowedBy(TimeWindowRule rule) {
+        return rule.allows(day, slot, publicHoliday);
+    }
+
+    /**
+     * Day of the week, Monday being 0
+     */
+    public int getDay() {
+        return day;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public boolean isPublicHoliday() {
+        return publicHoliday;
+    }
+
+    public boolean isFree() {
+        return free;
+    }
+
+    /**
+     * Compact form for cache keys and ETags, e.g. "6.20hf" for Sunday 10:00 on a public holiday, free only
+     */
+    public String toKey() {
+        return day + "." + slot + (publicHoliday ? "h" : "") + (free ? "f" : "");
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.carpark.common.time;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Tells which dates are public holidays, on which "PH" parking rules apply.
+ * Provide a bean of this type to replace the calendar configured in application properties.
+ */
+@FunctionalInterface
+public interface PublicHolidayCalendar {
+
+    boolean isPublicHoliday(LocalDate date);
+
+    /**
+     * Calendar of a fixed set of dates
+     */
+    static PublicHolidayCalendar of(Collection<LocalDate> holidays) {
+        Set<LocalDate> dates = Set.copyOf(holidays);
+        return dates::contains;
+    }
+}
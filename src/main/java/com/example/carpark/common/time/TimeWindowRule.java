@@ -0,0 +1,241 @@
+package com.example.carpark.common.time;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled weekly schedule of when a parking rule such as free or short-term parking applies.
+ * Each day from Monday to Sunday is a mask of 48 half-hour slots, plus one mask for public holidays
+ * that is added to the weekday's own mask on those dates, so checking a moment is a shift and a mask.
+ */
+public final class TimeWindowRule {
+
+    public static final int SLOTS_PER_DAY = 48;
+    public static final int DAYS_PER_WEEK = 7;
+    // Position of the public holiday mask after the seven weekdays
+    public static final int PUBLIC_HOLIDAY = DAYS_PER_WEEK;
+    // Each mask is stored as 6 bytes, least significant slot first
+    public static final int BYTES_PER_MASK = SLOTS_PER_DAY / 8;
+    public static final int ENCODED_LENGTH = BYTES_PER_MASK * (DAYS_PER_WEEK + 1);
+
+    private static final long FULL_DAY = (1L << SLOTS_PER_DAY) - 1;
+    // Hours of the night parking scheme
+    private static final String NIGHT_PARKING_WINDOW = "10.30PM-7AM";
+    private static final String[] DAY_NAMES = { "MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN" };
+    private static final Pattern TIME_RANGE = Pattern.compile(
+            "(\\d{1,2})(?:[.:](\\d{2}))?\\s*(AM|PM)\\s*-\\s*(\\d{1,2})(?:[.:](\\d{2}))?\\s*(AM|PM)");
+    private static final Pattern FROM = Pattern.compile("\\s*\\bFR(?:OM)?\\s*$");
+
+    public static final TimeWindowRule NEVER = new TimeWindowRule(new long[DAYS_PER_WEEK + 1]);
+    public static final TimeWindowRule ALWAYS = allWeek();
+
+    // Indexed by day, Monday first, then the public holiday mask
+    private final long[] masks;
+
+    private TimeWindowRule(long[] masks) {
+        this.masks = masks;
+    }
+
+    /**
+     * Compile a source rule such as "WHOLE DAY", "7AM-10.30PM" or "SUN & PH FR 7AM-10.30PM".
+     * Days may be names, "PH" or ranges like "MON-FRI"; without days the window applies every day.
+     * A window ending at or before its start runs past midnight into the next day, except on a
+     * public holiday, whose mask only covers the holiday itself. Blank, "NO" and unreadable text never apply.
+     */
+    public static TimeWindowRule parse(String text) {
+        if (text == null) {
+            return NEVER;
+        }
+        String rule = text.trim().toUpperCase(Locale.ROOT);
+        if (rule.isEmpty() || rule.equals("NO")) {
+            return NEVER;
+        }
+
+        String days;
+        int startSlot;
+        int endSlot;
+        Matcher range = TIME_RANGE.matcher(rule);
+        if (range.find() && range.end() == rule.length()) {
+            days = rule.substring(0, range.start());
+            startSlot = slot(range.group(1), range.group(2), range.group(3), false);
+            endSlot = slot(range.group(4), range.group(5), range.group(6), true);
+        } else if (rule.endsWith("WHOLE DAY")) {
+            days = rule.substring(0, rule.length() - "WHOLE DAY".length());
+            startSlot = 0;
+            endSlot = SLOTS_PER_DAY;
+        } else {
+            return NEVER;
+        }
+        if (startSlot < 0 || endSlot < 0) {
+            return NEVER;
+        }
+
+        boolean[] selected = parseDays(FROM.matcher(days).replaceFirst("").trim());
+        if (selected == null) {
+            return NEVER;
+        }
+        long[] masks = new long[DAYS_PER_WEEK + 1];
+        for (int day = 0; day <= PUBLIC_HOLIDAY; day++) {
+            if (!selected[day]) {
+                continue;
+            }
+            if (startSlot < endSlot) {
+                masks[day] |= slotRange(startSlot, endSlot);
+            } else {
+                masks[day] |= slotRange(startSlot, SLOTS_PER_DAY);
+                if (day != PUBLIC_HOLIDAY) {
+                    masks[(day + 1) % DAYS_PER_WEEK] |= slotRange(0, endSlot);
+                }
+            }
+        }
+        return new TimeWindowRule(masks);
+    }
+
+    /**
+     * Compile a night parking flag, where "YES" means the night parking hours every day
+     */
+    public static TimeWindowRule parseNightParking(String text) {
+        if (text != null && text.trim().equalsIgnoreCase("YES")) {
+            return parse(NIGHT_PARKING_WINDOW);
+        }
+        return parse(text);
+    }
+
+    /**
+     * Whether the rule applies in a half-hour slot of a day, Monday being day 0
+     */
+    public boolean allows(int day, int slot, boolean publicHoliday) {
+        long mask = masks[day] | (publicHoliday ? masks[PUBLIC_HOLIDAY] : 0L);
+        return (mask >>> slot & 1L) != 0;
+    }
+
+    /**
+     * Fixed-length binary form, one 6-byte mask per day and then the public holiday mask
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[ENCODED_LENGTH];
+        for (int day = 0; day < masks.length; day++) {
+            for (int i = 0; i < BYTES_PER_MASK; i++) {
+                bytes[encodedByteIndex(day, i * 8)] = (byte) (masks[day] >>> (i * 8));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Read a rule back from {@link #toBytes()}
+     */
+    public static TimeWindowRule fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Time window rule must be " + ENCODED_LENGTH + " bytes");
+        }
+        long[] masks = new long[DAYS_PER_WEEK + 1];
+        for (int day = 0; day < masks.length; day++) {
+            for (int i = 0; i < BYTES_PER_MASK; i++) {
+                masks[day] |= (bytes[encodedByteIndex(day, i * 8)] & 0xFFL) << (i * 8);
+            }
+        }
+        return new TimeWindowRule(masks);
+    }
+
+    /**
+     * Zero-based index of the byte in {@link #toBytes()} holding a day's slot
+     */
+    public static int encodedByteIndex(int day, int slot) {
+        return day * BYTES_PER_MASK + slot / 8;
+    }
+
+    /**
+     * Bit of a slot within its encoded byte
+     */
+    public static int encodedBit(int slot) {
+        return 1 << (slot % 8);
+    }
+
+    /**
+     * Half-hour slot of the day a time of day falls in
+     */
+    public static int slotOf(int hour, int minute) {
+        return hour * 2 + minute / 30;
+    }
+
+    /**
+     * Selected days from a list such as "SUN & PH" or "MON-FRI, SAT", or null when unreadable.
+     * An empty list selects every weekday.
+     */
+    private static boolean[] parseDays(String days) {
+        boolean[] selected = new boolean[DAYS_PER_WEEK + 1];
+        if (days.isEmpty()) {
+            Arrays.fill(selected, 0, DAYS_PER_WEEK, true);
+            return selected;
+        }
+        for (String token : days.split("\\s*[&,/]\\s*|\\s+(?:AND\\s+)?")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.equals("PH")) {
+                selected[PUBLIC_HOLIDAY] = true;
+                continue;
+            }
+            int dash = token.indexOf('-');
+            int first = dayIndex(dash < 0 ? token : token.substring(0, dash));
+            int last = dash < 0 ? first : dayIndex(token.substring(dash + 1));
+            if (first < 0 || last < 0) {
+                return null;
+            }
+            for (int day = first; ; day = (day + 1) % DAYS_PER_WEEK) {
+                selected[day] = true;
+                if (day == last) {
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static int dayIndex(String name) {
+        for (int day = 0; day < DAY_NAMES.length; day++) {
+            if (name.startsWith(DAY_NAMES[day])) {
+                return day;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Slot of a clock time such as 10.30PM; start times round down and end times up to a
+     * half hour. Returns -1 for an impossible time.
+     */
+    private static int slot(String hourText, String minuteText, String meridiem, boolean roundUp) {
+        int hour = Integer.parseInt(hourText);
+        int minute = minuteText == null ? 0 : Integer.parseInt(minuteText);
+        if (hour < 1 || hour > 12 || minute > 59) {
+            return -1;
+        }
+        hour = hour % 12 + (meridiem.equals("PM") ? 12 : 0);
+        int slot = slotOf(hour, minute);
+        return roundUp && minute % 30 != 0 ? slot + 1 : slot;
+    }
+
+    private static long slotRange(int fromSlot, int toSlot) {
+        return FULL_DAY >>> (SLOTS_PER_DAY - (toSlot - fromSlot)) << fromSlot;
+    }
+
+    private static TimeWindowRule allWeek() {
+        long[] masks = new long[DAYS_PER_WEEK + 1];
+        Arrays.fill(masks, 0, DAYS_PER_WEEK, FULL_DAY);
+        return new TimeWindowRule(masks);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TimeWindowRule rule && Arrays.equals(masks, rule.masks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(masks);
+    }
+}
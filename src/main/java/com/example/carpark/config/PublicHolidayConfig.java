@@ -0,0 +1,29 @@
+package com.example.carpark.config;
+
+import com.example.carpark.common.time.PublicHolidayCalendar;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PublicHolidayConfig {
+
+    /**
+     * Public holidays listed as comma-separated ISO dates in carpark.public-holidays
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PublicHolidayCalendar publicHolidayCalendar(@Value("${carpark.public-holidays:}") String holidays) {
+        List<LocalDate> dates = Arrays.stream(holidays.split(","))
+                .map(String::trim)
+                .filter(date -> !date.isEmpty())
+                .map(LocalDate::parse)
+                .collect(Collectors.toList());
+        return PublicHolidayCalendar.of(dates);
+    }
+}
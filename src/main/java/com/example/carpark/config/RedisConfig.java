@@ -1,5 +1,8 @@
 package com.example.carpark.config;
 
+import com.example.carpark.repository.redis.CompactCarParkRedisSerializer;
+import com.example.carpark.repository.redis.RedisNearCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -11,8 +14,9 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
- import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
 
@@ -20,8 +24,45 @@ import java.time.Duration;
 @EnableCaching
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
 public class RedisConfig {
+
+    // "binary" writes the compact car park format; "json" keeps writing JSON. Both read either.
+    @Value("${carpark.cache.codec:json}")
+    private String cacheCodec;
+
+    @Value("${carpark.cache.near-cache.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+
+    @Bean
+    public RedisSerializer<Object> carParkValueSerializer() {
+        CompactCarParkRedisSerializer compact = new CompactCarParkRedisSerializer();
+        if ("binary".equalsIgnoreCase(cacheCodec)) {
+            return compact;
+        }
+        // Still decode binary entries so a node can be rolled back after others switched
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        return new RedisSerializer<>() {
+            @Override
+            public byte[] serialize(Object value) {
+                return json.serialize(value);
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) {
+                return compact.deserialize(bytes);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "carpark.cache.near-cache.enabled", havingValue = "true")
+    public RedisNearCache redisNearCache(RedisConnectionFactory connectionFactory) {
+        return new RedisNearCache(connectionFactory, nearCacheMaximumSize);
+    }
+
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(
+            RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> carParkValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
@@ -29,20 +70,22 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         
-        // Use JSON serializer for values
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // Car park values use the configured codec, everything else is JSON
+        template.setValueSerializer(carParkValueSerializer);
+        template.setHashValueSerializer(carParkValueSerializer);
         
         template.afterPropertiesSet();
         return template;
     }
     
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(
+            RedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> carParkValueSerializer) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(15)) // 15 minutes TTL
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(carParkValueSerializer))
                 .disableCachingNullValues();
         
         return RedisCacheManager.builder(connectionFactory)
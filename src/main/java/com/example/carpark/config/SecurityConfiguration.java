@@ -15,6 +15,7 @@ public class SecurityConfiguration {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/v1/carparks/**").permitAll() // Allow car park endpoints
+                        .requestMatchers("/actuator/health/**").permitAll() // Liveness and readiness probes
                         .requestMatchers("/error").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
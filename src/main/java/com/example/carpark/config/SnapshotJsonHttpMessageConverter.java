@@ -0,0 +1,43 @@
+package com.example.carpark.config;
+
+import com.example.carpark.repository.snapshot.SnapshotCarParkList;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes snapshot-backed nearest results as JSON straight from the snapshot's
+ * pre-encoded fragments, bypassing Jackson. Other media types fall through to
+ * the regular converters.
+ */
+public class SnapshotJsonHttpMessageConverter extends AbstractHttpMessageConverter<SnapshotCarParkList> {
+
+    public SnapshotJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SnapshotCarParkList.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SnapshotCarParkList readInternal(
+            Class<? extends SnapshotCarParkList> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Snapshot results are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(SnapshotCarParkList carParks, HttpOutputMessage outputMessage) throws IOException {
+        carParks.writeJson(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.carpark.config;
+
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of Jackson so snapshot results are written from their pre-encoded fragments
+        converters.add(0, new SnapshotJsonHttpMessageConverter());
+    }
+}
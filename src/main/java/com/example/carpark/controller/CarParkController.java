@@ -3,21 +3,35 @@ package com.example.carpark.controller;
 import com.example.carpark.common.constants.CarParkConstants;
 import com.example.carpark.common.exception.CarParkException;
 import com.example.carpark.common.exception.ErrorCode;
+import com.example.carpark.dto.request.CorridorRequestDTO;
 import com.example.carpark.dto.request.NearestCarParkRequestDTO;
+import com.example.carpark.dto.request.ViewportRequestDTO;
+import com.example.carpark.dto.response.CarParkClusterDTO;
 import com.example.carpark.dto.response.CarParkResponseDTO;
 import com.example.carpark.service.CachedCarParkService;
 import com.example.carpark.service.CarParkAvailabilityService;
+import com.example.carpark.service.CarParkClusterService;
+import com.example.carpark.service.CarParkExportService;
 import com.example.carpark.service.CarParkStreamingImportService;
+import com.example.carpark.service.CorridorSearchService;
+import com.example.carpark.service.ViewportCarParkService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(CarParkConstants.API_BASE_PATH)
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = CarParkConstants.CACHE_GENERATION_HEADER)
 public class CarParkController {
 
     private static final Logger logger = LoggerFactory.getLogger(CarParkController.class);
@@ -25,25 +39,58 @@ public class CarParkController {
     private final CachedCarParkService cachedCarParkService;
     private final CarParkStreamingImportService carParkStreamingImportService;
     private final CarParkAvailabilityService carParkAvailabilityService;
+    private final CarParkExportService carParkExportService;
+    private final ViewportCarParkService viewportCarParkService;
+    private final CarParkClusterService carParkClusterService;
+    private final CorridorSearchService corridorSearchService;
 
     public CarParkController(
             CachedCarParkService cachedCarParkService,
             CarParkStreamingImportService carParkStreamingImportService,
-            CarParkAvailabilityService carParkAvailabilityService) {
+            CarParkAvailabilityService carParkAvailabilityService,
+            CarParkExportService carParkExportService,
+            ViewportCarParkService viewportCarParkService,
+            CarParkClusterService carParkClusterService,
+            CorridorSearchService corridorSearchService) {
         this.cachedCarParkService = cachedCarParkService;
         this.carParkStreamingImportService = carParkStreamingImportService;
         this.carParkAvailabilityService = carParkAvailabilityService;
+        this.carParkExportService = carParkExportService;
+        this.viewportCarParkService = viewportCarParkService;
+        this.carParkClusterService = carParkClusterService;
+        this.corridorSearchService = corridorSearchService;
     }
 
     /**
-     * Find nearest car parks to a given location
+     * Find nearest car parks to a given location.
+     * Answers 304 without running the query when If-None-Match matches the current data version.
      */
     @GetMapping(CarParkConstants.NEAREST_ENDPOINT)
     public ResponseEntity<List<CarParkResponseDTO>> findNearestCarParks(
-            @Valid NearestCarParkRequestDTO request) {
+            @Valid NearestCarParkRequestDTO request,
+            WebRequest webRequest) {
         try {
-            List<CarParkResponseDTO> carParks = cachedCarParkService.findNearestCarParks(request);
-            return ResponseEntity.ok(carParks);
+            // Taken before the query, so a response is never newer-tagged than its body
+            String eTag = cachedCarParkService.nearestETag(request);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .cacheControl(CacheControl.noCache())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .build();
+            }
+
+            CachedCarParkService.NearestCarParkPage page = cachedCarParkService.findNearestCarParkPage(request);
+            // The body may be JSON, CBOR or Smile depending on the Accept header
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+            if (page.getGeneration() != null) {
+                // Sent back as the generation parameter so later pages come from the same generation
+                response.header(CarParkConstants.CACHE_GENERATION_HEADER, page.getGeneration().toString());
+            }
+            if (eTag != null) {
+                response.eTag(eTag).cacheControl(CacheControl.noCache());
+            }
+            return response.body(page.getCarParks());
         } catch (Exception e) {
             logger.error("Error finding nearest car parks", e);
             throw new CarParkException(
@@ -53,6 +100,86 @@ public class CarParkController {
         }
     }
 
+    /**
+     * Find car parks inside a map viewport, capped at the request limit
+     */
+    @GetMapping(CarParkConstants.VIEWPORT_ENDPOINT)
+    public ResponseEntity<List<CarParkResponseDTO>> findCarParksInViewport(@Valid ViewportRequestDTO request) {
+        List<CarParkResponseDTO> carParks = viewportCarParkService.findWithin(request);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(carParks);
+    }
+
+    /**
+     * Find car parks with available lots along a route, in order of distance along it
+     */
+    @GetMapping(CarParkConstants.CORRIDOR_ENDPOINT)
+    public ResponseEntity<List<CarParkResponseDTO>> findCarParksAlongRoute(@Valid CorridorRequestDTO request) {
+        List<CarParkResponseDTO> carParks = corridorSearchService.findAlongRoute(request);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(carParks);
+    }
+
+    /**
+     * Same as the GET form, for polylines too long for a request line
+     */
+    @PostMapping(CarParkConstants.CORRIDOR_ENDPOINT)
+    public ResponseEntity<List<CarParkResponseDTO>> findCarParksAlongPostedRoute(
+            @Valid @RequestBody CorridorRequestDTO request) {
+        return findCarParksAlongRoute(request);
+    }
+
+    /**
+     * Car park clusters of a z/x/y map tile, precomputed from the current snapshot.
+     * Answers 304 when If-None-Match matches the current tile set.
+     */
+    @GetMapping(CarParkConstants.CLUSTER_TILE_ENDPOINT)
+    public ResponseEntity<List<CarParkClusterDTO>> findClusterTile(
+            @PathVariable("z") int zoom,
+            @PathVariable("x") int x,
+            @PathVariable("y") int y,
+            WebRequest webRequest) {
+        String eTag = carParkClusterService.tilesETag();
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+
+        List<CarParkClusterDTO> clusters = carParkClusterService.findTile(zoom, x, y);
+        if (eTag == null) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(clusters);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(clusters);
+    }
+
+    /**
+     * Export all active car parks with current availability as NDJSON or CSV.
+     * Rows are streamed to the response as they are read; the full list is never built.
+     */
+    @GetMapping(CarParkConstants.EXPORT_ENDPOINT)
+    public ResponseEntity<StreamingResponseBody> exportCarParks(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        CarParkExportService.Format exportFormat = CarParkExportService.Format.fromName(format);
+        if (exportFormat == null) {
+            throw new CarParkException(
+                    CarParkConstants.ERROR_INVALID_EXPORT_FORMAT,
+                    ErrorCode.INVALID_EXPORT_FORMAT.getCode(),
+                    ErrorCode.INVALID_EXPORT_FORMAT.getHttpStatus());
+        }
+
+        StreamingResponseBody body = out -> carParkExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"carparks." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
     /**
      * Import car park data from CSV using streaming
      */
@@ -70,6 +197,26 @@ public class CarParkController {
         }
     }
 
+    /**
+     * Import car park data from a CSV request body, optionally gzip-compressed.
+     * The body is streamed straight into the parser rather than buffered.
+     */
+    @PostMapping(
+            value = CarParkConstants.IMPORT_UPLOAD_ENDPOINT,
+            consumes = { "text/csv", "application/gzip", "application/octet-stream" })
+    public ResponseEntity<String> uploadCarParkData(HttpServletRequest request) {
+        try {
+            carParkStreamingImportService.importCarParkDataStreaming(request.getInputStream());
+            return ResponseEntity.ok(CarParkConstants.SUCCESS_IMPORT_COMPLETED);
+        } catch (Exception e) {
+            logger.error("Error importing uploaded car park data", e);
+            throw new CarParkException(
+                    CarParkConstants.ERROR_CSV_IMPORT_FAILED,
+                    ErrorCode.CSV_IMPORT_FAILED.getCode(),
+                    e);
+        }
+    }
+
     /**
      * Manually trigger car park availability update from external API
      */
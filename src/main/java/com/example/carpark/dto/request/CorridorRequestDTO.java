@@ -0,0 +1,56 @@
+package com.example.carpark.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Route as an encoded polyline, with how far either side of it to search
+ */
+public class CorridorRequestDTO {
+
+    @NotBlank(message = "Polyline is required")
+    private String polyline;
+
+    @Min(value = 10, message = "Buffer must be at least 10 metres")
+    @Max(value = 5000, message = "Buffer must not exceed 5000 metres")
+    private Integer bufferMeters = 300;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 500, message = "Limit must not exceed 500")
+    private Integer limit = 100;
+
+    // Constructors
+    public CorridorRequestDTO() {}
+
+    public CorridorRequestDTO(String polyline, Integer bufferMeters, Integer limit) {
+        this.polyline = polyline;
+        this.bufferMeters = bufferMeters;
+        this.limit = limit;
+    }
+
+    // Getters and Setters
+    public String getPolyline() {
+        return polyline;
+    }
+
+    public void setPolyline(String polyline) {
+        this.polyline = polyline;
+    }
+
+    public Integer getBufferMeters() {
+        return bufferMeters;
+    }
+
+    public void setBufferMeters(Integer bufferMeters) {
+        this.bufferMeters = bufferMeters;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
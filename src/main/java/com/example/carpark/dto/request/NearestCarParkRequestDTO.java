@@ -6,6 +6,9 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
 
 public class NearestCarParkRequestDTO {
 
@@ -35,6 +38,30 @@ public class NearestCarParkRequestDTO {
     @Max(value = 100, message = "Per page must not exceed 100")
     private Integer perPage = 10;
 
+    // Optional attribute filters; a car park must match one of the values of every filter given
+    private List<String> carParkType;
+    private List<String> typeOfParkingSystem;
+    private List<String> nightParking;
+    private List<String> freeParking;
+    private List<String> carParkBasement;
+    private List<String> gantryHeight;
+
+    // Height of the vehicle in metres; car parks with a lower gantry are left out
+    @DecimalMin(value = "0.5", message = "Max vehicle height must be between 0.5 and 10 metres")
+    @DecimalMax(value = "10.0", message = "Max vehicle height must be between 0.5 and 10 metres")
+    private BigDecimal maxVehicleHeight;
+
+    // Only car parks where parking is allowed at this time, or free at it when free is set
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private OffsetDateTime at;
+
+    // Only car parks where parking is free at the given time, or now when no time is given
+    private Boolean free;
+
+    // Cache generation returned with an earlier page, so later pages are read from the same generation
+    @Min(value = 0, message = "Generation must not be negative")
+    private Long generation;
+
     // Constructors
     public NearestCarParkRequestDTO() {}
 
@@ -82,4 +109,84 @@ public class NearestCarParkRequestDTO {
     public void setPerPage(Integer perPage) {
         this.perPage = perPage;
     }
+
+    public List<String> getCarParkType() {
+        return carParkType;
+    }
+
+    public void setCarParkType(List<String> carParkType) {
+        this.carParkType = carParkType;
+    }
+
+    public List<String> getTypeOfParkingSystem() {
+        return typeOfParkingSystem;
+    }
+
+    public void setTypeOfParkingSystem(List<String> typeOfParkingSystem) {
+        this.typeOfParkingSystem = typeOfParkingSystem;
+    }
+
+    public List<String> getNightParking() {
+        return nightParking;
+    }
+
+    public void setNightParking(List<String> nightParking) {
+        this.nightParking = nightParking;
+    }
+
+    public List<String> getFreeParking() {
+        return freeParking;
+    }
+
+    public void setFreeParking(List<String> freeParking) {
+        this.freeParking = freeParking;
+    }
+
+    public List<String> getCarParkBasement() {
+        return carParkBasement;
+    }
+
+    public void setCarParkBasement(List<String> carParkBasement) {
+        this.carParkBasement = carParkBasement;
+    }
+
+    public List<String> getGantryHeight() {
+        return gantryHeight;
+    }
+
+    public void setGantryHeight(List<String> gantryHeight) {
+        this.gantryHeight = gantryHeight;
+    }
+
+    public BigDecimal getMaxVehicleHeight() {
+        return maxVehicleHeight;
+    }
+
+    public void setMaxVehicleHeight(BigDecimal maxVehicleHeight) {
+        this.maxVehicleHeight = maxVehicleHeight;
+    }
+
+    public OffsetDateTime getAt() {
+        return at;
+    }
+
+    public void setAt(OffsetDateTime at) {
+        this.at = at;
+    }
+
+    public Boolean getFree() {
+        return free;
+    }
+
+    public void setFree(Boolean free) {
+        this.free = free;
+    }
+
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(Long generation) {
+        this.generation = generation;
+    }
 }
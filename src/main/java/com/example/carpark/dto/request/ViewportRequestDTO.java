@@ -0,0 +1,96 @@
+package com.example.carpark.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * Bounding box of a map viewport, with a cap on how many car parks to return
+ */
+public class ViewportRequestDTO {
+
+    @NotNull(message = "Min latitude is required")
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private BigDecimal minLatitude;
+
+    @NotNull(message = "Min longitude is required")
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private BigDecimal minLongitude;
+
+    @NotNull(message = "Max latitude is required")
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private BigDecimal maxLatitude;
+
+    @NotNull(message = "Max longitude is required")
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private BigDecimal maxLongitude;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 500, message = "Limit must not exceed 500")
+    private Integer limit = 200;
+
+    // Constructors
+    public ViewportRequestDTO() {}
+
+    public ViewportRequestDTO(
+        BigDecimal minLatitude,
+        BigDecimal minLongitude,
+        BigDecimal maxLatitude,
+        BigDecimal maxLongitude,
+        Integer limit
+    ) {
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+        this.limit = limit;
+    }
+
+    // Getters and Setters
+    public BigDecimal getMinLatitude() {
+        return minLatitude;
+    }
+
+    public void setMinLatitude(BigDecimal minLatitude) {
+        this.minLatitude = minLatitude;
+    }
+
+    public BigDecimal getMinLongitude() {
+        return minLongitude;
+    }
+
+    public void setMinLongitude(BigDecimal minLongitude) {
+        this.minLongitude = minLongitude;
+    }
+
+    public BigDecimal getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public void setMaxLatitude(BigDecimal maxLatitude) {
+        this.maxLatitude = maxLatitude;
+    }
+
+    public BigDecimal getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    public void setMaxLongitude(BigDecimal maxLongitude) {
+        this.maxLongitude = maxLongitude;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
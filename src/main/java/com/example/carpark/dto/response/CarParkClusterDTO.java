@@ -0,0 +1,97 @@
+package com.example.carpark.dto.response;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Car parks aggregated into one map marker: how many, how many lots are free, and their centroid
+ */
+public class CarParkClusterDTO {
+
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private Integer count;
+    private Integer availableLots;
+
+    // Constructors
+    public CarParkClusterDTO() {}
+
+    public CarParkClusterDTO(
+        BigDecimal latitude,
+        BigDecimal longitude,
+        Integer count,
+        Integer availableLots
+    ) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.count = count;
+        this.availableLots = availableLots;
+    }
+
+    // Getters and Setters
+    public BigDecimal getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(BigDecimal latitude) {
+        this.latitude = latitude;
+    }
+
+    public BigDecimal getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(BigDecimal longitude) {
+        this.longitude = longitude;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Integer getAvailableLots() {
+        return availableLots;
+    }
+
+    public void setAvailableLots(Integer availableLots) {
+        this.availableLots = availableLots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CarParkClusterDTO that = (CarParkClusterDTO) o;
+        return (
+            Objects.equals(latitude, that.latitude) &&
+            Objects.equals(longitude, that.longitude) &&
+            Objects.equals(count, that.count) &&
+            Objects.equals(availableLots, that.availableLots)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitude, longitude, count, availableLots);
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "CarParkClusterDTO{" +
+            "latitude=" +
+            latitude +
+            ", longitude=" +
+            longitude +
+            ", count=" +
+            count +
+            ", availableLots=" +
+            availableLots +
+            '}'
+        );
+    }
+}
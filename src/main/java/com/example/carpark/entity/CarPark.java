@@ -1,10 +1,19 @@
 package com.example.carpark.entity;
 
+import com.example.carpark.common.time.TimeWindowRule;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.type.SqlTypes;
 import org.locationtech.jts.geom.Point;
 import org.springframework.data.annotation.CreatedBy;
@@ -14,14 +23,27 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "car_parks")
+@Table(
+    name = "car_parks",
+    indexes = {
+        @Index(name = "idx_geohash", columnList = "geohash"),
+        @Index(name = "idx_gantry_height_value", columnList = "gantry_height_value")
+    }
+)
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class CarPark {
 
+    // Same shape as the REGEXP in V4__add_gantry_height_value_to_car_parks.sql, after trimming
+    private static final Pattern GANTRY_HEIGHT = Pattern.compile("(\\d{1,2}(?:\\.\\d+)?) *M*");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name = "car_park_no", unique = true, nullable = false, length = 50)
     private String carParkNo;
 
@@ -38,6 +60,10 @@ public class CarPark {
     @JdbcTypeCode(SqlTypes.GEOMETRY)
     private Point location;
 
+    // Geohash cell key of the location, indexed for cell-range nearest searches
+    @Column(name = "geohash", length = 12)
+    private String geohash;
+
     @Column(name = "total_lots")
     private Integer totalLots = 0;
 
@@ -59,15 +85,33 @@ public class CarPark {
     @Column(name = "night_parking", length = 100)
     private String nightParking;
 
+    // Compiled TimeWindowRule bytes of shortTermParking, freeParking and nightParking
+    @Column(name = "short_term_parking_rule", length = TimeWindowRule.ENCODED_LENGTH)
+    private byte[] shortTermParkingRule;
+
+    @Column(name = "free_parking_rule", length = TimeWindowRule.ENCODED_LENGTH)
+    private byte[] freeParkingRule;
+
+    @Column(name = "night_parking_rule", length = TimeWindowRule.ENCODED_LENGTH)
+    private byte[] nightParkingRule;
+
     @Column(name = "car_park_decks", length = 50)
     private String carParkDecks;
 
     @Column(name = "gantry_height", length = 50)
     private String gantryHeight;
 
+    // Gantry clearance in metres parsed from gantryHeight; null when there is no gantry
+    @Column(name = "gantry_height_value", precision = 4, scale = 2)
+    private BigDecimal gantryHeightValue;
+
     @Column(name = "car_park_basement", length = 10)
     private String carParkBasement;
 
+    // SHA-256 of the source CSV row, used to skip unchanged rows on re-import
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     // Audit fields
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -133,10 +177,14 @@ public class CarPark {
         this.carParkType = carParkType;
         this.typeOfParkingSystem = typeOfParkingSystem;
         this.shortTermParking = shortTermParking;
+        this.shortTermParkingRule = TimeWindowRule.parse(shortTermParking).toBytes();
         this.freeParking = freeParking;
+        this.freeParkingRule = TimeWindowRule.parse(freeParking).toBytes();
         this.nightParking = nightParking;
+        this.nightParkingRule = TimeWindowRule.parseNightParking(nightParking).toBytes();
         this.carParkDecks = carParkDecks;
         this.gantryHeight = gantryHeight;
+        this.gantryHeightValue = parseGantryHeight(gantryHeight);
         this.carParkBasement = carParkBasement;
     }
 
@@ -189,6 +237,14 @@ public class CarPark {
         this.location = location;
     }
 
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public Integer getTotalLots() {
         return totalLots;
     }
@@ -227,6 +283,11 @@ public class CarPark {
 
     public void setShortTermParking(String shortTermParking) {
         this.shortTermParking = shortTermParking;
+        this.shortTermParkingRule = TimeWindowRule.parse(shortTermParking).toBytes();
+    }
+
+    public byte[] getShortTermParkingRule() {
+        return shortTermParkingRule;
     }
 
     public String getFreeParking() {
@@ -235,6 +296,11 @@ public class CarPark {
 
     public void setFreeParking(String freeParking) {
         this.freeParking = freeParking;
+        this.freeParkingRule = TimeWindowRule.parse(freeParking).toBytes();
+    }
+
+    public byte[] getFreeParkingRule() {
+        return freeParkingRule;
     }
 
     public String getNightParking() {
@@ -243,6 +309,11 @@ public class CarPark {
 
     public void setNightParking(String nightParking) {
         this.nightParking = nightParking;
+        this.nightParkingRule = TimeWindowRule.parseNightParking(nightParking).toBytes();
+    }
+
+    public byte[] getNightParkingRule() {
+        return nightParkingRule;
     }
 
     public String getCarParkDecks() {
@@ -259,6 +330,29 @@ public class CarPark {
 
     public void setGantryHeight(String gantryHeight) {
         this.gantryHeight = gantryHeight;
+        this.gantryHeightValue = parseGantryHeight(gantryHeight);
+    }
+
+    public BigDecimal getGantryHeightValue() {
+        return gantryHeightValue;
+    }
+
+    /**
+     * Parse a source gantry height such as "2.15" or "1.8 m" into metres: one or two whole digits,
+     * an optional fraction and optional trailing "M"s, the same values the V4 backfill accepts.
+     * Blank, zero, signed, exponent and other unreadable values mean no gantry and return null.
+     */
+    public static BigDecimal parseGantryHeight(String gantryHeight) {
+        if (gantryHeight == null) {
+            return null;
+        }
+        Matcher matcher = GANTRY_HEIGHT.matcher(gantryHeight.trim().toUpperCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return null;
+        }
+        BigDecimal metres = new BigDecimal(matcher.group(1)).setScale(2, RoundingMode.HALF_UP);
+        // DECIMAL(4,2) holds up to 99.99; zero is "no gantry" in the source data
+        return metres.signum() > 0 && metres.precision() <= 4 ? metres : null;
     }
 
     public String getCarParkBasement() {
@@ -269,6 +363,14 @@ public class CarPark {
         this.carParkBasement = carParkBasement;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     // Audit field getters and setters
     public LocalDateTime getCreatedAt() {
         return createdAt;
@@ -0,0 +1,28 @@
+package com.example.carpark.health;
+
+import com.example.carpark.service.StartupCacheWarmer;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until startup cache warmup has finished.
+ * Included in the readiness group only, so liveness is unaffected.
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupCacheWarmer startupCacheWarmer;
+
+    public CacheWarmupHealthIndicator(StartupCacheWarmer startupCacheWarmer) {
+        this.startupCacheWarmer = startupCacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        if (startupCacheWarmer.isWarmedUp()) {
+            return Health.up().build();
+        }
+        return Health.outOfService().withDetail("reason", "cache warmup in progress").build();
+    }
+}
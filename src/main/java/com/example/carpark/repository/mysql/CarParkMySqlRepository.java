@@ -1,22 +1,30 @@
 package com.example.carpark.repository.mysql;
 
 import com.example.carpark.entity.CarPark;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * MySQL repository for car park database operations using Hibernate
+ * Finder methods run in read-only transactions so they can be routed to a replica;
+ * modifying methods override this with read-write transactions
  */
 @Repository
-public interface CarParkMySqlRepository extends JpaRepository<CarPark, Long> {
+@Transactional(readOnly = true)
+public interface CarParkMySqlRepository extends JpaRepository<CarPark, Long>, CarParkNaturalIdRepository {
     /**
      * Find car park by car park number (excluding soft deleted)
      */
@@ -48,42 +56,187 @@ public interface CarParkMySqlRepository extends JpaRepository<CarPark, Long> {
 
     /**
      * Find nearest car parks using MySQL spatial functions
-     * Returns car parks with available lots, sorted by distance
+     * Returns summaries of car parks with available lots, sorted by distance
      */
     @Query(value = """
-            SELECT cp.*,
-                   ST_Distance_Sphere(:searchPoint, cp.location) / 1000 AS distance_km
+            SELECT cp.car_park_no AS carParkNo,
+                   cp.address AS address,
+                   cp.latitude AS latitude,
+                   cp.longitude AS longitude,
+                   cp.total_lots AS totalLots,
+                   cp.available_lots AS availableLots
             FROM car_parks cp
             WHERE cp.deleted_at IS NULL
               AND cp.available_lots > 0
-            ORDER BY distance_km
+            ORDER BY ST_Distance_Sphere(:searchPoint, cp.location)
             LIMIT :limit OFFSET :offset
             """, nativeQuery = true)
-    List<CarPark> findNearestCarParksWithPoint(
+    List<CarParkSummary> findNearestSummariesWithPoint(
             @Param("searchPoint") Point searchPoint,
             @Param("limit") int limit,
             @Param("offset") int offset);
 
     /**
-     * Batch update car park availability using native SQL for better performance
+     * Find nearest car parks with available lots whose attributes are in the given
+     * comma-separated value lists, where a null list leaves that attribute unfiltered.
+     * A non-null vehicle height leaves out car parks with a lower gantry. A non-null slot bit keeps
+     * car parks whose compiled rule has that bit set in the given byte of the day, or of the public
+     * holiday mask when the holiday byte is not 0: the free parking rule when freeOnly is set,
+     * otherwise the short-term or night parking rule.
+     */
+    @Query(value = """
+            SELECT cp.car_park_no AS carParkNo,
+                   cp.address AS address,
+                   cp.latitude AS latitude,
+                   cp.longitude AS longitude,
+                   cp.total_lots AS totalLots,
+                   cp.available_lots AS availableLots
+            FROM car_parks cp
+            WHERE cp.deleted_at IS NULL
+              AND cp.available_lots > 0
+              AND (:carParkTypes IS NULL OR FIND_IN_SET(cp.car_park_type, :carParkTypes) > 0)
+              AND (:parkingSystems IS NULL OR FIND_IN_SET(cp.type_of_parking_system, :parkingSystems) > 0)
+              AND (:nightParking IS NULL OR FIND_IN_SET(cp.night_parking, :nightParking) > 0)
+              AND (:freeParking IS NULL OR FIND_IN_SET(cp.free_parking, :freeParking) > 0)
+              AND (:basements IS NULL OR FIND_IN_SET(cp.car_park_basement, :basements) > 0)
+              AND (:gantryHeights IS NULL OR FIND_IN_SET(cp.gantry_height, :gantryHeights) > 0)
+              AND (:vehicleHeight IS NULL OR cp.gantry_height_value IS NULL OR cp.gantry_height_value >= :vehicleHeight)
+              AND (:slotBit IS NULL OR (CASE WHEN :freeOnly
+                      THEN ASCII(SUBSTRING(cp.free_parking_rule, :dayByte, 1))
+                           | ASCII(SUBSTRING(cp.free_parking_rule, :holidayByte, 1))
+                      ELSE ASCII(SUBSTRING(cp.short_term_parking_rule, :dayByte, 1))
+                           | ASCII(SUBSTRING(cp.short_term_parking_rule, :holidayByte, 1))
+                           | ASCII(SUBSTRING(cp.night_parking_rule, :dayByte, 1))
+                           | ASCII(SUBSTRING(cp.night_parking_rule, :holidayByte, 1))
+                      END & :slotBit) <> 0)
+            ORDER BY ST_Distance_Sphere(:searchPoint, cp.location)
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<CarParkSummary> findNearestSummariesMatching(
+            @Param("searchPoint") Point searchPoint,
+            @Param("carParkTypes") String carParkTypes,
+            @Param("parkingSystems") String parkingSystems,
+            @Param("nightParking") String nightParking,
+            @Param("freeParking") String freeParking,
+            @Param("basements") String basements,
+            @Param("gantryHeights") String gantryHeights,
+            @Param("vehicleHeight") BigDecimal vehicleHeight,
+            @Param("dayByte") Integer dayByte,
+            @Param("holidayByte") Integer holidayByte,
+            @Param("slotBit") Integer slotBit,
+            @Param("freeOnly") Boolean freeOnly,
+            @Param("limit") int limit,
+            @Param("offset") int offset);
+
+    /**
+     * Find summaries of active car parks inside a viewport rectangle, nearest the centre first.
+     * MBRContains on the location column resolves to a range scan on idx_location; ordering by
+     * distance to the centre keeps the same rows as the snapshot when the limit cuts the result.
+     */
+    @Query(value = """
+            SELECT cp.car_park_no AS carParkNo,
+                   cp.address AS address,
+                   cp.latitude AS latitude,
+                   cp.longitude AS longitude,
+                   cp.total_lots AS totalLots,
+                   cp.available_lots AS availableLots
+            FROM car_parks cp
+            WHERE cp.deleted_at IS NULL
+              AND MBRContains(:viewport, cp.location)
+            ORDER BY ST_Distance_Sphere(:centre, cp.location)
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<CarParkSummary> findSummariesWithinViewport(
+            @Param("viewport") Geometry viewport,
+            @Param("centre") Point centre,
+            @Param("limit") int limit);
+
+    /**
+     * Find summaries of car parks with available lots inside an area (excluding soft deleted).
+     * ST_Contains against a constant area is resolved through idx_location.
+     */
+    @Query(value = """
+            SELECT cp.car_park_no AS carParkNo,
+                   cp.address AS address,
+                   cp.latitude AS latitude,
+                   cp.longitude AS longitude,
+                   cp.total_lots AS totalLots,
+                   cp.available_lots AS availableLots
+            FROM car_parks cp
+            WHERE cp.deleted_at IS NULL
+              AND cp.available_lots > 0
+              AND ST_Contains(:area, cp.location)
+            """, nativeQuery = true)
+    List<CarParkSummary> findSummariesWithAvailabilityInArea(@Param("area") Geometry area);
+
+    /**
+     * Find summaries of car parks with available lots inside a 3x3 block of geohash cells
+     * (excluding soft deleted). Each pattern must be a geohash prefix followed by '%'; the OR'ed
+     * prefixes resolve to one multi-range scan on idx_geohash. Repeat a pattern for blocks with
+     * fewer than nine distinct cells.
+     */
+    @Query("SELECT cp.carParkNo AS carParkNo, cp.address AS address, cp.latitude AS latitude, "
+            + "cp.longitude AS longitude, cp.totalLots AS totalLots, cp.availableLots AS availableLots "
+            + "FROM CarPark cp WHERE (cp.geohash LIKE :cell0 OR cp.geohash LIKE :cell1 OR cp.geohash LIKE :cell2 "
+            + "OR cp.geohash LIKE :cell3 OR cp.geohash LIKE :cell4 OR cp.geohash LIKE :cell5 "
+            + "OR cp.geohash LIKE :cell6 OR cp.geohash LIKE :cell7 OR cp.geohash LIKE :cell8) "
+            + "AND cp.availableLots > 0 AND cp.deletedAt IS NULL")
+    List<CarParkSummary> findSummariesWithAvailabilityInGeohashBlock(
+            @Param("cell0") String cell0,
+            @Param("cell1") String cell1,
+            @Param("cell2") String cell2,
+            @Param("cell3") String cell3,
+            @Param("cell4") String cell4,
+            @Param("cell5") String cell5,
+            @Param("cell6") String cell6,
+            @Param("cell7") String cell7,
+            @Param("cell8") String cell8);
+
+    /**
+     * Find summaries of car parks with available lots by car park numbers (excluding soft deleted)
+     */
+    @Query("SELECT cp.carParkNo AS carParkNo, cp.address AS address, cp.latitude AS latitude, "
+            + "cp.longitude AS longitude, cp.totalLots AS totalLots, cp.availableLots AS availableLots "
+            + "FROM CarPark cp WHERE cp.carParkNo IN :carParkNumbers AND cp.availableLots > 0 AND cp.deletedAt IS NULL")
+    List<CarParkSummary> findSummariesWithAvailabilityByCarParkNoIn(
+            @Param("carParkNumbers") List<String> carParkNumbers);
+
+    /**
+     * Stream summaries of every active car park in primary key order.
+     * The MySQL driver streams rows one at a time for a fetch size of Integer.MIN_VALUE,
+     * so the result set is never held in memory. The stream must be closed and consumed
+     * inside a transaction.
+     */
+    @Query("SELECT cp.carParkNo AS carParkNo, cp.address AS address, cp.latitude AS latitude, "
+            + "cp.longitude AS longitude, cp.totalLots AS totalLots, cp.availableLots AS availableLots "
+            + "FROM CarPark cp WHERE cp.deletedAt IS NULL ORDER BY cp.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CarParkSummary> streamActiveSummaries();
+
+    /**
+     * Batch update car park availability using native SQL for better performance.
+     * The availability feed's lot type (C, H, Y...) is not the car park type from the CSV import,
+     * so car_park_type is left to the import.
      */
     @Query(value = """
             UPDATE car_parks
             SET total_lots = :totalLots,
                 available_lots = :availableLots,
-                car_park_type = :carParkType,
                 updated_at = NOW(),
                 updated_by = :updatedBy
             WHERE car_park_no = :carParkNo
             AND deleted_at IS NULL
             """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_parks"))
     @Modifying
     @Transactional
     int updateCarParkAvailabilityBatch(
             @Param("carParkNo") String carParkNo,
             @Param("totalLots") Integer totalLots,
             @Param("availableLots") Integer availableLots,
-            @Param("carParkType") String carParkType,
             @Param("updatedBy") String updatedBy);
 
     /**
@@ -142,20 +295,17 @@ public interface CarParkMySqlRepository extends JpaRepository<CarPark, Long> {
             available_lots = CASE car_park_no
                 :availableLotsCases
             END,
-            car_park_type = CASE car_park_no
-                :carParkTypeCases
-            END,
             updated_at = NOW(),
             updated_by = :updatedBy
             WHERE car_park_no IN (:carParkNumbers)
             AND deleted_at IS NULL
             """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "car_parks"))
     @Modifying
     @Transactional
     int updateCarParkAvailabilityBatchMultiple(
             @Param("totalLotsCases") String totalLotsCases,
             @Param("availableLotsCases") String availableLotsCases,
-            @Param("carParkTypeCases") String carParkTypeCases,
             @Param("carParkNumbers") List<String> carParkNumbers,
             @Param("updatedBy") String updatedBy);
 }
@@ -0,0 +1,26 @@
+package com.example.carpark.repository.mysql;
+
+import com.example.carpark.entity.CarPark;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Car park lookups by car park number that go through the Hibernate natural-id cache
+ */
+public interface CarParkNaturalIdRepository {
+
+    /**
+     * Find an active car park by car park number, served from the second-level cache when present
+     */
+    Optional<CarPark> findActiveByCarParkNo(String carParkNo);
+
+    /**
+     * Find active car parks by car park numbers, loading only cache misses from the database
+     */
+    List<CarPark> findActiveByCarParkNoIn(List<String> carParkNumbers);
+
+    /**
+     * Evict all cached car park entities and natural-id mappings
+     */
+    void evictSecondLevelCache();
+}
@@ -0,0 +1,51 @@
+package com.example.carpark.repository.mysql;
+
+import com.example.carpark.entity.CarPark;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Natural-id repository fragment backed by the Hibernate session API
+ */
+@Transactional(readOnly = true)
+public class CarParkNaturalIdRepositoryImpl implements CarParkNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<CarPark> findActiveByCarParkNo(String carParkNo) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(CarPark.class)
+                .loadOptional(carParkNo)
+                .filter(carPark -> carPark.getDeletedAt() == null);
+    }
+
+    @Override
+    public List<CarPark> findActiveByCarParkNoIn(List<String> carParkNumbers) {
+        List<CarPark> loaded = entityManager.unwrap(Session.class)
+                .byMultipleNaturalId(CarPark.class)
+                .multiLoad(carParkNumbers);
+
+        List<CarPark> active = new ArrayList<>(loaded.size());
+        for (CarPark carPark : loaded) {
+            if (carPark != null && carPark.getDeletedAt() == null) {
+                active.add(carPark);
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public void evictSecondLevelCache() {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictEntityData(CarPark.class);
+        sessionFactory.getCache().evictNaturalIdData(CarPark.class);
+    }
+}
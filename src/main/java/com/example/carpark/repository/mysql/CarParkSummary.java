@@ -0,0 +1,22 @@
+package com.example.carpark.repository.mysql;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection with only the columns the nearest search responds with.
+ * Projection queries return these as plain tuples, outside the persistence context.
+ */
+public interface CarParkSummary {
+
+    String getCarParkNo();
+
+    String getAddress();
+
+    BigDecimal getLatitude();
+
+    BigDecimal getLongitude();
+
+    Integer getTotalLots();
+
+    Integer getAvailableLots();
+}
@@ -0,0 +1,44 @@
+package com.example.carpark.repository.redis;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import java.util.List;
+
+/**
+ * Cached nearest result with a soft expiry. Past the soft expiry the entry is still
+ * served but should be refreshed; the Redis TTL of the key is the hard expiry.
+ */
+public class CachedNearestResult {
+
+    private long softExpiresAt;
+    private List<CarParkResponseDTO> carParks;
+
+    public CachedNearestResult() {}
+
+    public CachedNearestResult(long softExpiresAt, List<CarParkResponseDTO> carParks) {
+        this.softExpiresAt = softExpiresAt;
+        this.carParks = carParks;
+    }
+
+    public long getSoftExpiresAt() {
+        return softExpiresAt;
+    }
+
+    public void setSoftExpiresAt(long softExpiresAt) {
+        this.softExpiresAt = softExpiresAt;
+    }
+
+    public List<CarParkResponseDTO> getCarParks() {
+        return carParks;
+    }
+
+    public void setCarParks(List<CarParkResponseDTO> carParks) {
+        this.carParks = carParks;
+    }
+
+    /**
+     * Whether the soft expiry has passed at the given epoch millisecond
+     */
+    public boolean isStaleAt(long epochMillis) {
+        return epochMillis >= softExpiresAt;
+    }
+}
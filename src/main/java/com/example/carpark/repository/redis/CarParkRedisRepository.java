@@ -4,14 +4,23 @@ import com.example.carpark.dto.response.CarParkResponseDTO;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -25,35 +34,100 @@ public class CarParkRedisRepository {
         CarParkRedisRepository.class
     );
 
-    private static final String NEAREST_CARPARKS_KEY_PREFIX =
-        "carpark:nearest:";
-    private static final String ALL_CARPARKS_KEY = "carpark:all";
-    private static final String AVAILABLE_CARPARKS_KEY = "carpark:available";
-    private static final String CARPARK_DETAIL_KEY_PREFIX = "carpark:detail:";
+    // Every cache key is scoped by generation: carpark:g{generation}:{suffix}
+    private static final String GENERATION_KEY = "carpark:generation";
+    private static final String GENERATION_KEY_PREFIX = "carpark:g";
+    private static final String NEAREST_CARPARKS_KEY_PREFIX = "nearest:";
+    private static final String ALL_CARPARKS_KEY = "all";
+    private static final String AVAILABLE_CARPARKS_KEY = "available";
+    private static final String CARPARK_DETAIL_KEY_PREFIX = "detail:";
+    private static final String CARPARK_TAG_KEY_PREFIX = "tag:carpark:";
+    private static final String NEAREST_INDEX_KEY = "tag:nearest";
     private static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+    // Nearest results are refreshed after the soft TTL and may be served stale until the hard TTL
+    private static final Duration NEAREST_SOFT_TTL = DEFAULT_TTL;
+    private static final Duration NEAREST_HARD_TTL = NEAREST_SOFT_TTL.multipliedBy(2);
+    // Tag sets outlive the entries they index so no live entry is ever untracked
+    private static final Duration TAG_TTL = NEAREST_HARD_TTL.plusMinutes(5);
+    private static final long SCAN_BATCH_SIZE = 1000;
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final ObjectProvider<RedisNearCache> redisNearCache;
 
     @Autowired
     public CarParkRedisRepository(
         RedisTemplate<String, Object> redisTemplate,
-        ObjectMapper objectMapper
+        StringRedisTemplate stringRedisTemplate,
+        ObjectMapper objectMapper,
+        ObjectProvider<RedisNearCache> redisNearCache
     ) {
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
         this.objectMapper = objectMapper;
+        this.redisNearCache = redisNearCache;
     }
 
     /**
-     * Cache nearest car parks for a specific location
+     * Current cache generation; 0 until the first bump.
+     * Read on every request, so it comes from the near cache when one is enabled.
+     */
+    public long currentGeneration() {
+        RedisNearCache nearCache = activeNearCache();
+        String generation = nearCache != null
+            ? nearCache.getString(GENERATION_KEY)
+            : stringRedisTemplate.opsForValue().get(GENERATION_KEY);
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+
+    /**
+     * Atomically move every reader to a new, empty generation.
+     * Entries of older generations are no longer addressed and expire through their TTL.
+     */
+    public long bumpGeneration() {
+        Long generation = stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+        logger.info("Advanced car park cache generation to {}", generation);
+        return generation != null ? generation : 0L;
+    }
+
+    /**
+     * Cache nearest car parks for a specific location, tagging the entry with
+     * every car park it contains so it can be invalidated selectively.
+     * The entry turns stale after the soft TTL and is removed after the hard TTL.
      */
     public void cacheNearestCarParks(
+        long generation,
         String cacheKey,
-        List<CarParkResponseDTO> carParks
+        List<CarParkResponseDTO> carParks,
+        Collection<String> carParkNos
     ) {
         try {
-            String key = NEAREST_CARPARKS_KEY_PREFIX + cacheKey;
-            redisTemplate.opsForValue().set(key, carParks, DEFAULT_TTL);
+            String key = key(generation, NEAREST_CARPARKS_KEY_PREFIX + cacheKey);
+            String nearestIndexKey = key(generation, NEAREST_INDEX_KEY);
+            CachedNearestResult entry = new CachedNearestResult(
+                System.currentTimeMillis() + NEAREST_SOFT_TTL.toMillis(),
+                carParks
+            );
+            redisTemplate.executePipelined(
+                new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> ops =
+                            (RedisOperations<String, Object>) operations;
+                        ops.opsForValue().set(key, entry, NEAREST_HARD_TTL);
+                        ops.opsForSet().add(nearestIndexKey, key);
+                        ops.expire(nearestIndexKey, TAG_TTL);
+                        for (String carParkNo : carParkNos) {
+                            String tagKey = key(generation, CARPARK_TAG_KEY_PREFIX + carParkNo);
+                            ops.opsForSet().add(tagKey, key);
+                            ops.expire(tagKey, TAG_TTL);
+                        }
+                        return null;
+                    }
+                }
+            );
             logger.debug("Cached nearest car parks for key: {}", key);
         } catch (Exception e) {
             logger.error(
@@ -65,24 +139,23 @@ public class CarParkRedisRepository {
     }
 
     /**
-     * Get cached nearest car parks for a specific location
+     * Get cached nearest car parks for a specific location, including entries past
+     * their soft expiry. Callers pass the generation they read at the start of a
+     * request so that every lookup in that request sees the same generation.
      */
-    public Optional<List<CarParkResponseDTO>> getCachedNearestCarParks(
+    public Optional<CachedNearestResult> getCachedNearestCarParks(
+        long generation,
         String cacheKey
     ) {
         try {
-            String key = NEAREST_CARPARKS_KEY_PREFIX + cacheKey;
+            String key = key(generation, NEAREST_CARPARKS_KEY_PREFIX + cacheKey);
             Object cached = redisTemplate.opsForValue().get(key);
-            if (cached != null) {
-                @SuppressWarnings("unchecked")
-                List<CarParkResponseDTO> carParks = (List<
-                    CarParkResponseDTO
-                >) cached;
+            if (cached instanceof CachedNearestResult entry) {
                 logger.debug(
                     "Retrieved cached nearest car parks for key: {}",
                     key
                 );
-                return Optional.of(carParks);
+                return Optional.of(entry);
             }
         } catch (Exception e) {
             logger.error(
@@ -101,7 +174,7 @@ public class CarParkRedisRepository {
         try {
             redisTemplate
                 .opsForValue()
-                .set(ALL_CARPARKS_KEY, carParks, DEFAULT_TTL);
+                .set(key(currentGeneration(), ALL_CARPARKS_KEY), carParks, DEFAULT_TTL);
             logger.debug("Cached all car parks");
         } catch (Exception e) {
             logger.error("Error caching all car parks", e);
@@ -113,7 +186,9 @@ public class CarParkRedisRepository {
      */
     public Optional<List<CarParkResponseDTO>> getCachedAllCarParks() {
         try {
-            Object cached = redisTemplate.opsForValue().get(ALL_CARPARKS_KEY);
+            Object cached = redisTemplate
+                .opsForValue()
+                .get(key(currentGeneration(), ALL_CARPARKS_KEY));
             if (cached != null) {
                 @SuppressWarnings("unchecked")
                 List<CarParkResponseDTO> carParks = (List<
@@ -135,7 +210,7 @@ public class CarParkRedisRepository {
         try {
             redisTemplate
                 .opsForValue()
-                .set(AVAILABLE_CARPARKS_KEY, carParks, DEFAULT_TTL);
+                .set(key(currentGeneration(), AVAILABLE_CARPARKS_KEY), carParks, DEFAULT_TTL);
             logger.debug("Cached available car parks");
         } catch (Exception e) {
             logger.error("Error caching available car parks", e);
@@ -149,7 +224,7 @@ public class CarParkRedisRepository {
         try {
             Object cached = redisTemplate
                 .opsForValue()
-                .get(AVAILABLE_CARPARKS_KEY);
+                .get(key(currentGeneration(), AVAILABLE_CARPARKS_KEY));
             if (cached != null) {
                 @SuppressWarnings("unchecked")
                 List<CarParkResponseDTO> carParks = (List<
@@ -172,7 +247,7 @@ public class CarParkRedisRepository {
         CarParkResponseDTO carPark
     ) {
         try {
-            String key = CARPARK_DETAIL_KEY_PREFIX + carParkNo;
+            String key = key(currentGeneration(), CARPARK_DETAIL_KEY_PREFIX + carParkNo);
             redisTemplate.opsForValue().set(key, carPark, DEFAULT_TTL);
             logger.debug("Cached car park detail for: {}", carParkNo);
         } catch (Exception e) {
@@ -187,7 +262,7 @@ public class CarParkRedisRepository {
         String carParkNo
     ) {
         try {
-            String key = CARPARK_DETAIL_KEY_PREFIX + carParkNo;
+            String key = key(currentGeneration(), CARPARK_DETAIL_KEY_PREFIX + carParkNo);
             Object cached = redisTemplate.opsForValue().get(key);
             if (cached != null) {
                 CarParkResponseDTO carPark = (CarParkResponseDTO) cached;
@@ -208,50 +283,40 @@ public class CarParkRedisRepository {
     }
 
     /**
-     * Invalidate all car park caches
+     * Invalidate all car park caches with a single INCR of the generation counter
      */
     public void invalidateAllCaches() {
         try {
-            redisTemplate.delete(ALL_CARPARKS_KEY);
-            redisTemplate.delete(AVAILABLE_CARPARKS_KEY);
-
-            // Delete all nearest car park caches
-            Set<String> keys = redisTemplate.keys(
-                NEAREST_CARPARKS_KEY_PREFIX + "*"
-            );
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
-
-            // Delete all car park detail caches
-            keys = redisTemplate.keys(CARPARK_DETAIL_KEY_PREFIX + "*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
-
-            logger.info("Invalidated all car park caches");
+            bumpGeneration();
         } catch (Exception e) {
             logger.error("Error invalidating car park caches", e);
         }
     }
 
     /**
-     * Invalidate specific car park cache
+     * Invalidate a specific car park and only the nearest entries that contain it
      */
     public void invalidateCarParkCache(String carParkNo) {
         try {
-            String key = CARPARK_DETAIL_KEY_PREFIX + carParkNo;
-            redisTemplate.delete(key);
-
-            // Also invalidate nearest car park caches as they might contain this car park
-            Set<String> keys = redisTemplate.keys(
-                NEAREST_CARPARKS_KEY_PREFIX + "*"
-            );
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
+            long generation = currentGeneration();
+            String tagKey = key(generation, CARPARK_TAG_KEY_PREFIX + carParkNo);
+            Set<String> nearestKeys = members(tagKey);
+
+            List<String> keys = new ArrayList<>(nearestKeys.size() + 2);
+            keys.add(key(generation, CARPARK_DETAIL_KEY_PREFIX + carParkNo));
+            keys.add(tagKey);
+            keys.addAll(nearestKeys);
+            redisTemplate.unlink(keys);
+
+            if (!nearestKeys.isEmpty()) {
+                redisTemplate.opsForSet().remove(key(generation, NEAREST_INDEX_KEY), nearestKeys.toArray());
             }
 
-            logger.debug("Invalidated cache for car park: {}", carParkNo);
+            logger.debug(
+                "Invalidated cache for car park: {} ({} nearest entries)",
+                carParkNo,
+                nearestKeys.size()
+            );
         } catch (Exception e) {
             logger.error(
                 "Error invalidating cache for car park: {}",
@@ -262,7 +327,7 @@ public class CarParkRedisRepository {
     }
 
     /**
-     * Get cache statistics
+     * Get cache statistics using incremental SCAN instead of KEYS
      */
     public CacheStats getCacheStats() {
         try {
@@ -270,22 +335,19 @@ public class CarParkRedisRepository {
             long nearestKeys = 0;
             long detailKeys = 0;
 
-            Set<String> allKeys = redisTemplate.keys("carpark:*");
-            if (allKeys != null) {
-                totalKeys = allKeys.size();
-
-                Set<String> nearestKeysSet = redisTemplate.keys(
-                    NEAREST_CARPARKS_KEY_PREFIX + "*"
-                );
-                if (nearestKeysSet != null) {
-                    nearestKeys = nearestKeysSet.size();
-                }
-
-                Set<String> detailKeysSet = redisTemplate.keys(
-                    CARPARK_DETAIL_KEY_PREFIX + "*"
-                );
-                if (detailKeysSet != null) {
-                    detailKeys = detailKeysSet.size();
+            ScanOptions options = ScanOptions.scanOptions()
+                .match("carpark:*")
+                .count(SCAN_BATCH_SIZE)
+                .build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = cursor.next();
+                    totalKeys++;
+                    if (key.contains(":" + NEAREST_CARPARKS_KEY_PREFIX)) {
+                        nearestKeys++;
+                    } else if (key.contains(":" + CARPARK_DETAIL_KEY_PREFIX)) {
+                        detailKeys++;
+                    }
                 }
             }
 
@@ -296,6 +358,27 @@ public class CarParkRedisRepository {
         }
     }
 
+    private RedisNearCache activeNearCache() {
+        RedisNearCache nearCache = redisNearCache.getIfAvailable();
+        return nearCache != null && nearCache.isActive() ? nearCache : null;
+    }
+
+    private String key(long generation, String suffix) {
+        return GENERATION_KEY_PREFIX + generation + ":" + suffix;
+    }
+
+    private Set<String> members(String setKey) {
+        Set<Object> members = redisTemplate.opsForSet().members(setKey);
+        if (members == null || members.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> keys = new HashSet<>(members.size());
+        for (Object member : members) {
+            keys.add(member.toString());
+        }
+        return keys;
+    }
+
     /**
      * Cache statistics data class
      */
@@ -0,0 +1,249 @@
+package com.example.carpark.repository.redis;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.entity.CarParkAvailability;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer with a compact binary layout for car park responses, cached
+ * nearest results and availability records. Layout: magic byte, format version, value type, then the fields.
+ * Any other value is written as JSON, and values without the magic byte are read as JSON,
+ * so entries written before the switch stay readable.
+ */
+public class CompactCarParkRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC7;
+    static final byte VERSION = 1;
+
+    static final byte TYPE_RESPONSE = 1;
+    static final byte TYPE_RESPONSE_LIST = 2;
+    static final byte TYPE_AVAILABILITY_LIST = 3;
+    static final byte TYPE_NEAREST_RESULT = 4;
+
+    private static final int NULL_SCALE = -1;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactCarParkRedisSerializer() {
+        this(new GenericJackson2JsonRedisSerializer());
+    }
+
+    public CompactCarParkRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] compact = null;
+        if (value instanceof CarParkResponseDTO response) {
+            compact = encode(TYPE_RESPONSE, 1, out -> writeResponse(out, response));
+        } else if (value instanceof CachedNearestResult result && allOfType(result.getCarParks(), CarParkResponseDTO.class)) {
+            List<CarParkResponseDTO> carParks = result.getCarParks();
+            compact = encode(TYPE_NEAREST_RESULT, carParks.size(), out -> {
+                out.writeLong(result.getSoftExpiresAt());
+                for (CarParkResponseDTO carPark : carParks) {
+                    writeResponse(out, carPark);
+                }
+            });
+        } else if (value instanceof List<?> list && !list.isEmpty()) {
+            if (allOfType(list, CarParkResponseDTO.class)) {
+                compact = encode(TYPE_RESPONSE_LIST, list.size(), out -> {
+                    for (Object item : list) {
+                        writeResponse(out, (CarParkResponseDTO) item);
+                    }
+                });
+            } else if (allOfType(list, CarParkAvailability.class)) {
+                compact = encode(TYPE_AVAILABILITY_LIST, list.size(), out -> {
+                    for (Object item : list) {
+                        writeAvailability(out, (CarParkAvailability) item);
+                    }
+                });
+            }
+        }
+        // Values the compact layout cannot hold exactly are stored as JSON
+        return compact != null ? compact : fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializationException("Unsupported car park cache format version: " + version);
+            }
+            byte type = in.readByte();
+            return switch (type) {
+                case TYPE_RESPONSE -> readResponse(in);
+                case TYPE_RESPONSE_LIST -> readResponses(in, in.readInt());
+                case TYPE_NEAREST_RESULT -> {
+                    int size = in.readInt();
+                    yield new CachedNearestResult(in.readLong(), readResponses(in, size));
+                }
+                case TYPE_AVAILABILITY_LIST -> {
+                    int size = in.readInt();
+                    List<CarParkAvailability> records = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        records.add(readAvailability(in));
+                    }
+                    yield records;
+                }
+                default -> throw new SerializationException("Unknown car park cache value type: " + type);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not read car park cache value", e);
+        }
+    }
+
+    /**
+     * Encode a value, or return null when a field does not fit the compact layout
+     */
+    private byte[] encode(byte type, int size, Body body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + size * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(type);
+            if (type != TYPE_RESPONSE) {
+                out.writeInt(size);
+            }
+            body.write(out);
+        } catch (UnsupportedValueException e) {
+            return null;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write car park cache value", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean allOfType(List<?> list, Class<?> type) {
+        if (list == null) {
+            return false;
+        }
+        for (Object item : list) {
+            if (item == null || item.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeResponse(DataOutputStream out, CarParkResponseDTO response) throws IOException {
+        writeString(out, response.getAddress());
+        writeDecimal(out, response.getLatitude());
+        writeDecimal(out, response.getLongitude());
+        writeInteger(out, response.getTotalLots());
+        writeInteger(out, response.getAvailableLots());
+    }
+
+    private static CarParkResponseDTO readResponse(DataInputStream in) throws IOException {
+        return new CarParkResponseDTO(
+            readString(in),
+            readDecimal(in),
+            readDecimal(in),
+            readInteger(in),
+            readInteger(in)
+        );
+    }
+
+    private static List<CarParkResponseDTO> readResponses(DataInputStream in, int size) throws IOException {
+        List<CarParkResponseDTO> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            responses.add(readResponse(in));
+        }
+        return responses;
+    }
+
+    private static void writeAvailability(DataOutputStream out, CarParkAvailability availability) throws IOException {
+        writeString(out, availability.getCarparkNumber());
+        out.writeInt(availability.getTotalLots());
+        out.writeInt(availability.getAvailableLots());
+        writeString(out, availability.getLotType());
+    }
+
+    private static CarParkAvailability readAvailability(DataInputStream in) throws IOException {
+        String carparkNumber = readString(in);
+        int totalLots = in.readInt();
+        int availableLots = in.readInt();
+        return new CarParkAvailability(carparkNumber, totalLots, availableLots, readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            try {
+                out.writeUTF(value);
+            } catch (UTFDataFormatException e) {
+                // Longer than the 65535 encoded bytes writeUTF can length-prefix
+                throw new UnsupportedValueException();
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Coordinates are stored as scale plus unscaled long, which keeps values such as
+     * 1.30106000 exact without the string form JSON uses
+     */
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_SCALE);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() >= Long.SIZE || value.scale() < 0 || value.scale() > Byte.MAX_VALUE) {
+            throw new UnsupportedValueException();
+        }
+        out.writeByte(value.scale());
+        out.writeLong(unscaled.longValue());
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        byte scale = in.readByte();
+        return scale == NULL_SCALE ? null : BigDecimal.valueOf(in.readLong(), scale);
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    /**
+     * Thrown while encoding when a field does not fit the compact layout, so the value falls back to JSON
+     */
+    private static class UnsupportedValueException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.carpark.repository.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.support.caching.CacheAccessor;
+import io.lettuce.core.support.caching.CacheFrontend;
+import io.lettuce.core.support.caching.ClientSideCaching;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * Process-local copy of hot Redis keys kept coherent by RESP3 client tracking.
+ * Redis pushes an invalidation for every tracked key that is written or expires,
+ * and the local copy is dropped. While the tracking connection is down, reads go
+ * straight to Redis.
+ */
+public class RedisNearCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisNearCache.class);
+
+    private final RedisConnectionFactory connectionFactory;
+    private final long maximumSize;
+
+    private Cache<String, byte[]> local;
+    private StatefulRedisConnection<String, byte[]> connection;
+    private CacheFrontend<String, byte[]> frontend;
+    private volatile boolean tracking;
+
+    public RedisNearCache(
+        RedisConnectionFactory connectionFactory,
+        long maximumSize
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.maximumSize = maximumSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        AbstractRedisClient nativeClient = connectionFactory instanceof LettuceConnectionFactory lettuce
+            ? lettuce.getRequiredNativeClient()
+            : null;
+        if (!(nativeClient instanceof RedisClient client)) {
+            logger.warn("Redis near cache needs a standalone Lettuce client; reading from Redis directly");
+            return;
+        }
+        local = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        // Invalidations are lost while disconnected, so drop everything and re-enable tracking on reconnect.
+        // The listener is registered on the tracking connection only; the client's event bus would also
+        // report every other connection of the client, such as the shared connection behind RedisTemplate.
+        connection.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> ignored) {
+                tracking = false;
+                local.invalidateAll();
+            }
+
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> ignored, SocketAddress remoteAddress) {
+                if (frontend == null) {
+                    return;
+                }
+                connection.async().clientTracking(TrackingArgs.Builder.enabled()).thenRun(() -> {
+                    local.invalidateAll();
+                    tracking = true;
+                });
+            }
+        });
+        frontend = ClientSideCaching.enable(CacheAccessor.forMap(local.asMap()), connection,
+            TrackingArgs.Builder.enabled());
+        tracking = true;
+        logger.info("Redis near cache enabled with up to {} keys", maximumSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        tracking = false;
+        if (frontend != null) {
+            frontend.close();
+        } else if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Whether reads are served through the tracking connection
+     */
+    public boolean isActive() {
+        return connection != null;
+    }
+
+    /**
+     * Read a string value, such as a counter, through the near cache
+     */
+    public String getString(String key) {
+        byte[] value = get(key);
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Number of keys currently held locally
+     */
+    public long size() {
+        return local != null ? local.estimatedSize() : 0;
+    }
+
+    private byte[] get(String key) {
+        if (tracking) {
+            return frontend.get(key);
+        }
+        return connection.sync().get(key);
+    }
+}
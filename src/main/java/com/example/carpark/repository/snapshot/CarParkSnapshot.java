@@ -0,0 +1,675 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.common.geo.GeoDistance;
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.common.time.TimeWindowRule;
+import com.example.carpark.entity.CarPark;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable, column-oriented copy of the active car park set.
+ * Repeated attribute values are interned into a shared dictionary and stored as indexes.
+ */
+public final class CarParkSnapshot {
+
+    public static final CarParkSnapshot EMPTY = new CarParkSnapshot(
+            0L, new String[0], new String[0], new double[0], new double[0],
+            new int[0], new int[0], new String[0], new int[Attribute.values().length][0]);
+
+    /**
+     * Low-cardinality car park attributes stored through the dictionary
+     */
+    public enum Attribute {
+        CAR_PARK_TYPE(CarPark::getCarParkType),
+        TYPE_OF_PARKING_SYSTEM(CarPark::getTypeOfParkingSystem),
+        SHORT_TERM_PARKING(CarPark::getShortTermParking),
+        FREE_PARKING(CarPark::getFreeParking),
+        NIGHT_PARKING(CarPark::getNightParking),
+        CAR_PARK_DECKS(CarPark::getCarParkDecks),
+        GANTRY_HEIGHT(CarPark::getGantryHeight),
+        CAR_PARK_BASEMENT(CarPark::getCarParkBasement);
+
+        private final Function<CarPark, String> extractor;
+
+        Attribute(Function<CarPark, String> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    private static final int NO_VALUE = -1;
+    // Scale of the coordinates in API responses
+    static final int COORDINATE_SCALE = 8;
+    // Grid cells are about 1.1 km square, widened if the data would need more than MAX_GRID_CELLS per axis
+    private static final double GRID_CELL_DEGREES = 0.01;
+    private static final int MAX_GRID_CELLS = 1024;
+
+    private final long createdAtMillis;
+    private final String[] carParkNos;
+    private final String[] addresses;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] totalLots;
+    private final int[] availableLots;
+    private final String[] dictionary;
+    private final int[][] attributes;
+    // UTF-8 JSON of each row's static fields, built on first use
+    private volatile byte[][] jsonPrefixes;
+    // Uniform grid over the rows' bounding box, built on first use
+    private volatile GridIndex gridIndex;
+    // Per attribute, the rows holding each upper-cased value, built on first use
+    private volatile List<Map<String, BitSet>> attributeRows;
+    // Rows grouped by the gantry clearance they offer, built on first use
+    private volatile ClearanceIndex clearanceIndex;
+    // Per time rule attribute, each upper-cased value compiled to a TimeWindowRule, built on first use
+    private volatile Map<Attribute, Map<String, TimeWindowRule>> timeWindowRules;
+
+    CarParkSnapshot(long createdAtMillis, String[] carParkNos, String[] addresses,
+            double[] latitudes, double[] longitudes, int[] totalLots, int[] availableLots,
+            String[] dictionary, int[][] attributes) {
+        this.createdAtMillis = createdAtMillis;
+        this.carParkNos = carParkNos;
+        this.addresses = addresses;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.totalLots = totalLots;
+        this.availableLots = availableLots;
+        this.dictionary = dictionary;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Build a snapshot from car park entities, skipping rows without coordinates
+     */
+    public static CarParkSnapshot fromCarParks(List<CarPark> carParks, long createdAtMillis) {
+        List<CarPark> located = new ArrayList<>(carParks.size());
+        for (CarPark carPark : carParks) {
+            if (carPark.getLatitude() != null && carPark.getLongitude() != null) {
+                located.add(carPark);
+            }
+        }
+
+        int size = located.size();
+        String[] carParkNos = new String[size];
+        String[] addresses = new String[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        int[] totalLots = new int[size];
+        int[] availableLots = new int[size];
+        int[][] attributes = new int[Attribute.values().length][size];
+        Map<String, Integer> dictionaryIndex = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+
+        for (int row = 0; row < size; row++) {
+            CarPark carPark = located.get(row);
+            carParkNos[row] = carPark.getCarParkNo();
+            addresses[row] = carPark.getAddress();
+            latitudes[row] = carPark.getLatitude().doubleValue();
+            longitudes[row] = carPark.getLongitude().doubleValue();
+            totalLots[row] = carPark.getTotalLots() != null ? carPark.getTotalLots() : 0;
+            availableLots[row] = carPark.getAvailableLots() != null ? carPark.getAvailableLots() : 0;
+
+            for (Attribute attribute : Attribute.values()) {
+                String value = attribute.extractor.apply(carPark);
+                attributes[attribute.ordinal()][row] = value == null
+                        ? NO_VALUE
+                        : dictionaryIndex.computeIfAbsent(value, key -> {
+                            dictionary.add(key);
+                            return dictionary.size() - 1;
+                        });
+            }
+        }
+
+        return new CarParkSnapshot(createdAtMillis, carParkNos, addresses, latitudes, longitudes,
+                totalLots, availableLots, dictionary.toArray(new String[0]), attributes);
+    }
+
+    /**
+     * Rows of car parks with available lots nearest to the point, ordered by distance.
+     * Keeps a bounded sorted window of offset + limit rows instead of sorting every row.
+     */
+    public int[] findNearest(double latitude, double longitude, int limit, int offset) {
+        return findNearest(latitude, longitude, limit, offset, null);
+    }
+
+    /**
+     * Same as {@link #findNearest(double, double, int, int)}, visiting only the candidate rows,
+     * or every row when candidates is null
+     */
+    public int[] findNearest(double latitude, double longitude, int limit, int offset, BitSet candidates) {
+        int window = offset + limit;
+        if (window <= 0) {
+            return new int[0];
+        }
+
+        int[] bestRows = new int[window];
+        double[] bestDistances = new double[window];
+        int count = 0;
+
+        int row = candidates == null ? 0 : candidates.nextSetBit(0);
+        for (; row >= 0 && row < size(); row = candidates == null ? row + 1 : candidates.nextSetBit(row + 1)) {
+            if (availableLots[row] <= 0) {
+                continue;
+            }
+            double distance = GeoDistance.haversineMeters(latitude, longitude, latitudes[row], longitudes[row]);
+            if (count == window && distance >= bestDistances[window - 1]) {
+                continue;
+            }
+
+            int position = count < window ? count++ : window - 1;
+            while (position > 0 && bestDistances[position - 1] > distance) {
+                bestDistances[position] = bestDistances[position - 1];
+                bestRows[position] = bestRows[position - 1];
+                position--;
+            }
+            bestDistances[position] = distance;
+            bestRows[position] = row;
+        }
+
+        return offset >= count ? new int[0] : Arrays.copyOfRange(bestRows, offset, count);
+    }
+
+    /**
+     * Rows whose attributes match every filter, where a filter matches any of its values
+     * case-insensitively. Returns null when there are no filters.
+     */
+    public BitSet rowsMatching(Map<Attribute, ? extends Collection<String>> filters) {
+        BitSet matching = null;
+        List<Map<String, BitSet>> rowsByValue = attributeRows();
+        for (Map.Entry<Attribute, ? extends Collection<String>> filter : filters.entrySet()) {
+            BitSet attributeMatches = new BitSet(size());
+            for (String value : filter.getValue()) {
+                BitSet rows = rowsByValue.get(filter.getKey().ordinal()).get(value.toUpperCase(Locale.ROOT));
+                if (rows != null) {
+                    attributeMatches.or(rows);
+                }
+            }
+            if (matching == null) {
+                matching = attributeMatches;
+            } else {
+                matching.and(attributeMatches);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Rows a vehicle of the given height in metres can enter: no gantry, or a gantry at least that high
+     */
+    public BitSet rowsClearing(double vehicleHeight) {
+        ClearanceIndex index = clearanceIndex();
+        int position = Arrays.binarySearch(index.heights, vehicleHeight);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        BitSet rows = position < index.heights.length ? index.rowsClearing[position] : index.noGantry;
+        return (BitSet) rows.clone();
+    }
+
+    /**
+     * Rows where parking is free at the filter's time or, for a filter that does not ask for free
+     * parking, where short-term or night parking is allowed then. Each distinct rule is evaluated
+     * once and the rows holding it are taken as a whole.
+     */
+    public BitSet rowsAllowing(ParkingTimeFilter filter) {
+        if (filter.isFree()) {
+            return rowsAllowedBy(Attribute.FREE_PARKING, filter);
+        }
+        BitSet rows = rowsAllowedBy(Attribute.SHORT_TERM_PARKING, filter);
+        rows.or(rowsAllowedBy(Attribute.NIGHT_PARKING, filter));
+        return rows;
+    }
+
+    private BitSet rowsAllowedBy(Attribute attribute, ParkingTimeFilter filter) {
+        BitSet allowed = new BitSet(size());
+        Map<String, BitSet> rowsByValue = attributeRows().get(attribute.ordinal());
+        for (Map.Entry<String, TimeWindowRule> rule : timeWindowRules().get(attribute).entrySet()) {
+            if (filter.isAllowedBy(rule.getValue())) {
+                allowed.or(rowsByValue.get(rule.getKey()));
+            }
+        }
+        return allowed;
+    }
+
+    private Map<Attribute, Map<String, TimeWindowRule>> timeWindowRules() {
+        Map<Attribute, Map<String, TimeWindowRule>> rules = timeWindowRules;
+        if (rules == null) {
+            synchronized (this) {
+                rules = timeWindowRules;
+                if (rules == null) {
+                    rules = new EnumMap<>(Attribute.class);
+                    compileRules(rules, Attribute.SHORT_TERM_PARKING, TimeWindowRule::parse);
+                    compileRules(rules, Attribute.FREE_PARKING, TimeWindowRule::parse);
+                    compileRules(rules, Attribute.NIGHT_PARKING, TimeWindowRule::parseNightParking);
+                    timeWindowRules = rules;
+                }
+            }
+        }
+        return rules;
+    }
+
+    private void compileRules(Map<Attribute, Map<String, TimeWindowRule>> rules, Attribute attribute,
+            Function<String, TimeWindowRule> parser) {
+        Map<String, TimeWindowRule> compiled = new HashMap<>();
+        for (String value : attributeRows().get(attribute.ordinal()).keySet()) {
+            compiled.put(value, parser.apply(value));
+        }
+        rules.put(attribute, compiled);
+    }
+
+    private ClearanceIndex clearanceIndex() {
+        ClearanceIndex index = clearanceIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = clearanceIndex;
+                if (index == null) {
+                    index = new ClearanceIndex(this);
+                    clearanceIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private List<Map<String, BitSet>> attributeRows() {
+        List<Map<String, BitSet>> rowsByValue = attributeRows;
+        if (rowsByValue == null) {
+            synchronized (this) {
+                rowsByValue = attributeRows;
+                if (rowsByValue == null) {
+                    rowsByValue = new ArrayList<>(attributes.length);
+                    for (int[] values : attributes) {
+                        Map<String, BitSet> rows = new HashMap<>();
+                        for (int row = 0; row < values.length; row++) {
+                            if (values[row] != NO_VALUE) {
+                                rows.computeIfAbsent(dictionary[values[row]].toUpperCase(Locale.ROOT),
+                                        key -> new BitSet(size())).set(row);
+                            }
+                        }
+                        rowsByValue.add(rows);
+                    }
+                    attributeRows = rowsByValue;
+                }
+            }
+        }
+        return rowsByValue;
+    }
+
+    /**
+     * Rows inside the bounding box, inclusive, found through the grid index.
+     * When more than {@code limit} rows match, the ones nearest the centre of the box are kept.
+     */
+    public int[] findWithin(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+            int limit) {
+        if (limit <= 0 || isEmpty()) {
+            return new int[0];
+        }
+        GridIndex grid = gridIndex();
+        int minColumn = grid.column(minLongitude);
+        int maxColumn = grid.column(maxLongitude);
+        int minRow = grid.row(minLatitude);
+        int maxRow = grid.row(maxLatitude);
+
+        int[] matches = new int[Math.min(size(), 64)];
+        int count = 0;
+        for (int gridRow = minRow; gridRow <= maxRow; gridRow++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = gridRow * grid.columns + column;
+                for (int i = grid.cellStart[cell]; i < grid.cellStart[cell + 1]; i++) {
+                    int row = grid.cellRows[i];
+                    double latitude = latitudes[row];
+                    double longitude = longitudes[row];
+                    if (latitude < minLatitude || latitude > maxLatitude
+                            || longitude < minLongitude || longitude > maxLongitude) {
+                        continue;
+                    }
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, Math.min(size(), count * 2));
+                    }
+                    matches[count++] = row;
+                }
+            }
+        }
+
+        if (count <= limit) {
+            return Arrays.copyOf(matches, count);
+        }
+        return nearestToCentre(matches, count, (minLatitude + maxLatitude) / 2, (minLongitude + maxLongitude) / 2,
+                limit);
+    }
+
+    /**
+     * The limit matches closest to a point, nearest first. A max-heap of the closest rows seen so far,
+     * kept in two primitive arrays, bounds the work to count * log(limit) and the allocation to limit.
+     */
+    private int[] nearestToCentre(int[] matches, int count, double latitude, double longitude, int limit) {
+        // Equirectangular distance is enough to rank rows inside one viewport
+        double longitudeScale = Math.cos(Math.toRadians(latitude));
+        double[] heapDistances = new double[limit];
+        int[] heapRows = new int[limit];
+        int heapSize = 0;
+        for (int i = 0; i < count; i++) {
+            int row = matches[i];
+            double dLatitude = latitudes[row] - latitude;
+            double dLongitude = (longitudes[row] - longitude) * longitudeScale;
+            double distance = dLatitude * dLatitude + dLongitude * dLongitude;
+            if (heapSize < limit) {
+                heapDistances[heapSize] = distance;
+                heapRows[heapSize] = row;
+                siftUp(heapDistances, heapRows, heapSize++);
+            } else if (distance < heapDistances[0]) {
+                heapDistances[0] = distance;
+                heapRows[0] = row;
+                siftDown(heapDistances, heapRows, 0, heapSize);
+            }
+        }
+
+        // Repeatedly move the farthest remaining row to the end to list rows nearest first
+        for (int last = heapSize - 1; last > 0; last--) {
+            swap(heapDistances, heapRows, 0, last);
+            siftDown(heapDistances, heapRows, 0, last);
+        }
+        return heapRows;
+    }
+
+    private static void siftUp(double[] distances, int[] rows, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (distances[parent] >= distances[index]) {
+                return;
+            }
+            swap(distances, rows, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(double[] distances, int[] rows, int index, int size) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && distances[left] > distances[largest]) {
+                largest = left;
+            }
+            if (right < size && distances[right] > distances[largest]) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(distances, rows, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(double[] distances, int[] rows, int a, int b) {
+        double distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+        int row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+    }
+
+    private GridIndex gridIndex() {
+        GridIndex grid = gridIndex;
+        if (grid == null) {
+            synchronized (this) {
+                grid = gridIndex;
+                if (grid == null) {
+                    grid = new GridIndex(latitudes, longitudes);
+                    gridIndex = grid;
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Distinct gantry heights in ascending order, each with the rows whose clearance is at
+     * least that height; rows without a gantry are in every set
+     */
+    private static final class ClearanceIndex {
+
+        private final double[] heights;
+        private final BitSet[] rowsClearing;
+        private final BitSet noGantry;
+
+        ClearanceIndex(CarParkSnapshot snapshot) {
+            double[] rowHeights = new double[snapshot.size()];
+            this.noGantry = new BitSet(snapshot.size());
+            for (int row = 0; row < snapshot.size(); row++) {
+                BigDecimal height = CarPark.parseGantryHeight(snapshot.getAttribute(row, Attribute.GANTRY_HEIGHT));
+                if (height == null) {
+                    noGantry.set(row);
+                    rowHeights[row] = Double.NaN;
+                } else {
+                    rowHeights[row] = height.doubleValue();
+                }
+            }
+
+            this.heights = Arrays.stream(rowHeights).filter(height -> !Double.isNaN(height)).distinct().sorted().toArray();
+            this.rowsClearing = new BitSet[heights.length];
+            BitSet clearing = (BitSet) noGantry.clone();
+            // Walk from the highest gantry down so each set extends the one above it
+            for (int i = heights.length - 1; i >= 0; i--) {
+                for (int row = 0; row < rowHeights.length; row++) {
+                    if (rowHeights[row] == heights[i]) {
+                        clearing.set(row);
+                    }
+                }
+                rowsClearing[i] = (BitSet) clearing.clone();
+            }
+        }
+    }
+
+    /**
+     * Rows bucketed by grid cell in compressed form: the rows of cell c are
+     * cellRows[cellStart[c]] up to, but not including, cellRows[cellStart[c + 1]]
+     */
+    private static final class GridIndex {
+
+        private final double minLatitude;
+        private final double minLongitude;
+        private final double cellDegrees;
+        private final int columns;
+        private final int rows;
+        private final int[] cellStart;
+        private final int[] cellRows;
+
+        GridIndex(double[] latitudes, double[] longitudes) {
+            double minLat = Double.POSITIVE_INFINITY;
+            double maxLat = Double.NEGATIVE_INFINITY;
+            double minLon = Double.POSITIVE_INFINITY;
+            double maxLon = Double.NEGATIVE_INFINITY;
+            for (int row = 0; row < latitudes.length; row++) {
+                minLat = Math.min(minLat, latitudes[row]);
+                maxLat = Math.max(maxLat, latitudes[row]);
+                minLon = Math.min(minLon, longitudes[row]);
+                maxLon = Math.max(maxLon, longitudes[row]);
+            }
+            double span = Math.max(maxLat - minLat, maxLon - minLon);
+            this.minLatitude = minLat;
+            this.minLongitude = minLon;
+            this.cellDegrees = Math.max(GRID_CELL_DEGREES, span / MAX_GRID_CELLS);
+            this.columns = (int) ((maxLon - minLon) / cellDegrees) + 1;
+            this.rows = (int) ((maxLat - minLat) / cellDegrees) + 1;
+
+            int[] cellOf = new int[latitudes.length];
+            int[] counts = new int[columns * rows + 1];
+            for (int row = 0; row < latitudes.length; row++) {
+                cellOf[row] = row(latitudes[row]) * columns + column(longitudes[row]);
+                counts[cellOf[row] + 1]++;
+            }
+            for (int cell = 0; cell < columns * rows; cell++) {
+                counts[cell + 1] += counts[cell];
+            }
+            this.cellStart = counts.clone();
+            this.cellRows = new int[latitudes.length];
+            for (int row = 0; row < latitudes.length; row++) {
+                cellRows[counts[cellOf[row]]++] = row;
+            }
+        }
+
+        int column(double longitude) {
+            return clamp((int) Math.floor((longitude - minLongitude) / cellDegrees), columns);
+        }
+
+        int row(double latitude) {
+            return clamp((int) Math.floor((latitude - minLatitude) / cellDegrees), rows);
+        }
+
+        private static int clamp(int index, int size) {
+            return Math.max(0, Math.min(size - 1, index));
+        }
+    }
+
+    public int size() {
+        return carParkNos.length;
+    }
+
+    public boolean isEmpty() {
+        return carParkNos.length == 0;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public String getCarParkNo(int row) {
+        return carParkNos[row];
+    }
+
+    public String getAddress(int row) {
+        return addresses[row];
+    }
+
+    public double getLatitude(int row) {
+        return latitudes[row];
+    }
+
+    public double getLongitude(int row) {
+        return longitudes[row];
+    }
+
+    public int getTotalLots(int row) {
+        return totalLots[row];
+    }
+
+    public int getAvailableLots(int row) {
+        return availableLots[row];
+    }
+
+    /**
+     * Latitude of a row as it appears in API responses
+     */
+    public BigDecimal getLatitudeDecimal(int row) {
+        return BigDecimal.valueOf(latitudes[row]).setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Longitude of a row as it appears in API responses
+     */
+    public BigDecimal getLongitudeDecimal(int row) {
+        return BigDecimal.valueOf(longitudes[row]).setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Pre-encoded start of a row's response JSON object, up to and including the
+     * {@code "totalLots":} name. Address and coordinates only change on import, so
+     * they are encoded once per snapshot and the lot counts are appended per request.
+     */
+    public byte[] getJsonPrefix(int row) {
+        byte[][] prefixes = jsonPrefixes;
+        if (prefixes == null) {
+            synchronized (this) {
+                prefixes = jsonPrefixes;
+                if (prefixes == null) {
+                    prefixes = encodeJsonPrefixes();
+                    jsonPrefixes = prefixes;
+                }
+            }
+        }
+        return prefixes[row];
+    }
+
+    private byte[][] encodeJsonPrefixes() {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        byte[][] prefixes = new byte[size()][];
+        ByteArrayOutputStream json = new ByteArrayOutputStream(128);
+        for (int row = 0; row < size(); row++) {
+            json.reset();
+            json.writeBytes(ascii("{\"address\":"));
+            if (addresses[row] == null) {
+                json.writeBytes(ascii("null"));
+            } else {
+                json.write('"');
+                json.writeBytes(encoder.quoteAsUTF8(addresses[row]));
+                json.write('"');
+            }
+            // BigDecimal.toString matches how Jackson writes the response DTO coordinates
+            json.writeBytes(ascii(",\"latitude\":" + getLatitudeDecimal(row)
+                    + ",\"longitude\":" + getLongitudeDecimal(row)
+                    + ",\"totalLots\":"));
+            prefixes[row] = json.toByteArray();
+        }
+        return prefixes;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Attribute value of a row, or null when the car park has none
+     */
+    public String getAttribute(int row, Attribute attribute) {
+        int index = attributes[attribute.ordinal()][row];
+        return index == NO_VALUE ? null : dictionary[index];
+    }
+
+    String[] carParkNos() {
+        return carParkNos;
+    }
+
+    String[] addresses() {
+        return addresses;
+    }
+
+    double[] latitudes() {
+        return latitudes;
+    }
+
+    double[] longitudes() {
+        return longitudes;
+    }
+
+    int[] totalLots() {
+        return totalLots;
+    }
+
+    int[] availableLots() {
+        return availableLots;
+    }
+
+    String[] dictionary() {
+        return dictionary;
+    }
+
+    int[][] attributes() {
+        return attributes;
+    }
+}
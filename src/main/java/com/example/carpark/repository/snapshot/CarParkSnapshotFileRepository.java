@@ -0,0 +1,184 @@
+package com.example.carpark.repository.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+/**
+ * File repository for binary car park snapshots.
+ * Layout (big-endian): magic "CPSN", format version, creation time, row count,
+ * attribute dictionary, then one column per field.
+ */
+@Repository
+public class CarParkSnapshotFileRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarParkSnapshotFileRepository.class);
+    private static final int MAGIC = 0x4350534E; // "CPSN"
+    private static final int FORMAT_VERSION = 1;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${carpark.snapshot.path}")
+    private String snapshotPath;
+
+    /**
+     * Write the snapshot to a temporary file and atomically move it into place
+     */
+    public void save(CarParkSnapshot snapshot) throws IOException {
+        Path target = Path.of(snapshotPath).toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), WRITE_BUFFER_SIZE))) {
+                writeSnapshot(out, snapshot);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote car park snapshot with {} rows to {}", snapshot.size(), target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Memory-map and decode the snapshot file, if one exists
+     */
+    public Optional<CarParkSnapshot> load() throws IOException {
+        Path source = Path.of(snapshotPath);
+        if (!Files.isRegularFile(source)) {
+            logger.info("No car park snapshot found at {}", source);
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(readSnapshot(buffer));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt car park snapshot: " + source, e);
+        }
+    }
+
+    private void writeSnapshot(DataOutputStream out, CarParkSnapshot snapshot) throws IOException {
+        int size = snapshot.size();
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(snapshot.getCreatedAtMillis());
+        out.writeInt(size);
+
+        String[] dictionary = snapshot.dictionary();
+        out.writeInt(dictionary.length);
+        for (String value : dictionary) {
+            writeString(out, value);
+        }
+
+        for (String carParkNo : snapshot.carParkNos()) {
+            writeString(out, carParkNo);
+        }
+        for (String address : snapshot.addresses()) {
+            writeString(out, address);
+        }
+        for (double latitude : snapshot.latitudes()) {
+            out.writeDouble(latitude);
+        }
+        for (double longitude : snapshot.longitudes()) {
+            out.writeDouble(longitude);
+        }
+        for (int lots : snapshot.totalLots()) {
+            out.writeInt(lots);
+        }
+        for (int lots : snapshot.availableLots()) {
+            out.writeInt(lots);
+        }
+
+        int[][] attributes = snapshot.attributes();
+        out.writeInt(attributes.length);
+        for (int[] column : attributes) {
+            for (int index : column) {
+                out.writeInt(index);
+            }
+        }
+    }
+
+    private CarParkSnapshot readSnapshot(MappedByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a car park snapshot file");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported car park snapshot version: " + version);
+        }
+        long createdAtMillis = buffer.getLong();
+        int size = buffer.getInt();
+
+        String[] dictionary = new String[buffer.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(buffer);
+        }
+
+        String[] carParkNos = new String[size];
+        for (int row = 0; row < size; row++) {
+            carParkNos[row] = readString(buffer);
+        }
+        String[] addresses = new String[size];
+        for (int row = 0; row < size; row++) {
+            addresses[row] = readString(buffer);
+        }
+        double[] latitudes = new double[size];
+        buffer.asDoubleBuffer().get(latitudes);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        double[] longitudes = new double[size];
+        buffer.asDoubleBuffer().get(longitudes);
+        buffer.position(buffer.position() + size * Double.BYTES);
+        int[] totalLots = new int[size];
+        buffer.asIntBuffer().get(totalLots);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        int[] availableLots = new int[size];
+        buffer.asIntBuffer().get(availableLots);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+
+        int attributeCount = buffer.getInt();
+        if (attributeCount != CarParkSnapshot.Attribute.values().length) {
+            throw new IOException("Unexpected snapshot attribute count: " + attributeCount);
+        }
+        int[][] attributes = new int[attributeCount][size];
+        for (int[] column : attributes) {
+            buffer.asIntBuffer().get(column);
+            buffer.position(buffer.position() + size * Integer.BYTES);
+        }
+
+        return new CarParkSnapshot(createdAtMillis, carParkNos, addresses, latitudes, longitudes,
+                totalLots, availableLots, dictionary, attributes);
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of car park responses backed by rows of a snapshot.
+ * DTOs are only created when elements are read; {@link #writeJson} streams the
+ * list from the snapshot's pre-encoded fragments without creating any.
+ */
+public class SnapshotCarParkList extends AbstractList<CarParkResponseDTO> implements RandomAccess {
+
+    private static final byte[] AVAILABLE_LOTS_FIELD = ",\"availableLots\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final CarParkSnapshot snapshot;
+    private final int[] rows;
+
+    public SnapshotCarParkList(CarParkSnapshot snapshot, int[] rows) {
+        this.snapshot = snapshot;
+        this.rows = rows;
+    }
+
+    @Override
+    public CarParkResponseDTO get(int index) {
+        int row = rows[index];
+        return new CarParkResponseDTO(
+                snapshot.getAddress(row),
+                snapshot.getLatitudeDecimal(row),
+                snapshot.getLongitudeDecimal(row),
+                snapshot.getTotalLots(row),
+                snapshot.getAvailableLots(row));
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Write the list as a JSON array, the same document Jackson would produce for it
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(snapshot.getJsonPrefix(row));
+            writeInt(out, snapshot.getTotalLots(row));
+            out.write(AVAILABLE_LOTS_FIELD);
+            writeInt(out, snapshot.getAvailableLots(row));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,18 +1,43 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.cache.SingleFlight;
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.common.time.PublicHolidayCalendar;
 import com.example.carpark.dto.request.NearestCarParkRequestDTO;
 import com.example.carpark.dto.response.CarParkResponseDTO;
-import com.example.carpark.entity.CarPark;
-import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.redis.CachedNearestResult;
+import com.example.carpark.repository.redis.CarParkRedisRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.Point;
+import java.util.zip.CRC32;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,17 +46,44 @@ public class CachedCarParkService {
     private static final Logger logger = LoggerFactory.getLogger(
             CachedCarParkService.class);
 
-    private final CarParkMySqlRepository carParkMySqlRepository;
-    private final GeometryFactory geometryFactory;
+    // 3 decimal places is roughly 110 m; requests within one cell share a cached result
+    private static final int CACHE_KEY_COORDINATE_SCALE = 3;
+    private static final int GEO_SEARCH_RADIUS_KM = 50;
+    private static final long NO_GENERATION = -1L;
+
+    private final GeohashNearestSearchService geohashNearestSearchService;
     private final RedisGeospatialService redisGeospatialService;
+    private final CarParkSnapshotService carParkSnapshotService;
+    private final ObjectProvider<CarParkRedisRepository> carParkRedisRepository;
+    private final PublicHolidayCalendar publicHolidayCalendar;
+    // Concurrent misses for the same quantized key share one load
+    private final SingleFlight<String, List<CarParkResponseDTO>> nearestLoads = new SingleFlight<>();
+    // Keys of stale entries with a background refresh running
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Bounded so a burst of stale hits cannot queue unlimited database work
+    private final ExecutorService refreshExecutor = new ThreadPoolExecutor(
+            CarParkConstants.CACHE_REFRESH_THREADS,
+            CarParkConstants.CACHE_REFRESH_THREADS,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(CarParkConstants.CACHE_REFRESH_QUEUE_CAPACITY),
+            Thread.ofPlatform().name("nearest-refresh-", 0).daemon().factory());
+
+    // How long a request waits on another request's load before querying on its own
+    @Value("${carpark.cache.coalesce-wait:2s}")
+    private Duration coalesceWait = Duration.ofSeconds(2);
 
     public CachedCarParkService(
-            CarParkMySqlRepository carParkMySqlRepository,
-            GeometryFactory geometryFactory,
-            RedisGeospatialService redisGeospatialService) {
-        this.carParkMySqlRepository = carParkMySqlRepository;
-        this.geometryFactory = geometryFactory;
+            GeohashNearestSearchService geohashNearestSearchService,
+            RedisGeospatialService redisGeospatialService,
+            CarParkSnapshotService carParkSnapshotService,
+            ObjectProvider<CarParkRedisRepository> carParkRedisRepository,
+            PublicHolidayCalendar publicHolidayCalendar) {
+        this.geohashNearestSearchService = geohashNearestSearchService;
         this.redisGeospatialService = redisGeospatialService;
+        this.carParkSnapshotService = carParkSnapshotService;
+        this.carParkRedisRepository = carParkRedisRepository;
+        this.publicHolidayCalendar = publicHolidayCalendar;
     }
 
     /**
@@ -39,38 +91,35 @@ public class CachedCarParkService {
      */
     public List<CarParkResponseDTO> findNearestCarParks(
             NearestCarParkRequestDTO request) {
+        return findNearestCarParkPage(request).getCarParks();
+    }
+
+    /**
+     * Find a page of nearest car parks along with the cache generation it was read from.
+     * A request carrying the generation of an earlier page is read from that generation while
+     * its entry for the page still lives, so a paginated session does not mix generations.
+     */
+    public NearestCarParkPage findNearestCarParkPage(
+            NearestCarParkRequestDTO request) {
         try {
             logger.debug(
                     "Finding nearest car parks for coordinates: {}, {}",
                     request.getLatitude(),
                     request.getLongitude());
 
-            // Try Redis geospatial cache first
-            List<CarPark> cachedResults = redisGeospatialService.findNearbyCarParks(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    50, // 50km radius for initial search
-                    request.getPerPage());
-
-            if (cachedResults != null && !cachedResults.isEmpty()) {
-                logger.debug(
-                        "Found {} car parks in Redis cache",
-                        cachedResults.size());
-                return convertToResponseDTO(cachedResults);
+            int offset = (request.getPage() - 1) * request.getPerPage();
+            Map<CarParkSnapshot.Attribute, List<String>> filters = attributeFilters(request);
+            ParkingTimeFilter parkingTime = parkingTimeFilter(request);
+            if (!filters.isEmpty() || request.getMaxVehicleHeight() != null || parkingTime != null) {
+                return new NearestCarParkPage(findNearestMatching(request.getLatitude(), request.getLongitude(),
+                        request.getPerPage(), offset, filters, request.getMaxVehicleHeight(), parkingTime), null);
             }
-
-            // Fallback to database query
-            logger.debug("Cache miss, querying database for nearest car parks");
-            Point searchPoint = createSearchPoint(
+            return findNearestPage(
                     request.getLatitude(),
-                    request.getLongitude());
-
-            List<CarPark> carParks = carParkMySqlRepository.findNearestCarParksWithPoint(
-                    searchPoint,
+                    request.getLongitude(),
                     request.getPerPage(),
-                    (request.getPage() - 1) * request.getPerPage());
-
-            return convertToResponseDTO(carParks);
+                    offset,
+                    request.getGeneration());
         } catch (Exception e) {
             logger.error("Error finding nearest car parks", e);
             throw new RuntimeException("Failed to find nearest car parks", e);
@@ -91,54 +140,332 @@ public class CachedCarParkService {
                     latitude,
                     longitude);
 
-            // Try Redis geospatial cache first
-            List<CarPark> cachedResults = redisGeospatialService.findNearbyCarParks(
+            return findNearest(latitude, longitude, limit, 0);
+        } catch (Exception e) {
+            logger.error("Error finding nearest car parks with limit", e);
+            throw new RuntimeException(
+                    "Failed to find nearest car parks with limit",
+                    e);
+        }
+    }
+
+    /**
+     * Weak ETag for a nearest request, built from the current data version plus the
+     * quantized coordinates and page. Returns null when no data version is known.
+     */
+    public String nearestETag(NearestCarParkRequestDTO request) {
+        String version = dataVersion();
+        if (version == null) {
+            return null;
+        }
+        int offset = (request.getPage() - 1) * request.getPerPage();
+        Map<CarParkSnapshot.Attribute, List<String>> filters = attributeFilters(request);
+        ParkingTimeFilter parkingTime = parkingTimeFilter(request);
+        return "W/\"" + version + "-"
+                + nearestCacheKey(request.getLatitude(), request.getLongitude(), request.getPerPage(), offset)
+                + (filters.isEmpty() ? "" : ":f" + filterHash(filters))
+                + (request.getMaxVehicleHeight() == null ? "" : ":h" + request.getMaxVehicleHeight().toPlainString())
+                + (parkingTime == null ? "" : ":t" + parkingTime.toKey())
+                + (request.getGeneration() == null ? "" : ":p" + request.getGeneration())
+                + "\"";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Start a new cache generation whenever car park data has been written
+     */
+    @EventListener
+    public void onCarParkDataRefreshed(CarParkDataRefreshedEvent event) {
+        carParkRedisRepository.ifAvailable(CarParkRedisRepository::invalidateAllCaches);
+    }
+
+    private List<CarParkResponseDTO> findNearest(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset) {
+        return findNearestPage(latitude, longitude, limit, offset, null).getCarParks();
+    }
+
+    /**
+     * Resolve a page of nearest car parks: in-memory snapshot first, then the Redis
+     * result cache, then the Redis geo index, then the database. Concurrent misses for the
+     * same cache key wait on a single load. Stale cache entries, and entries of the previous
+     * generation on a miss in the current one, are returned at once while the current
+     * generation is refreshed in the background. A page of an earlier generation asked for by the
+     * client is served as it was cached and never refreshed, since that generation is closed.
+     */
+    private NearestCarParkPage findNearestPage(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset,
+            Long requestedGeneration) {
+        // Serve from the in-memory snapshot when one is loaded
+        if (carParkSnapshotService.isLoaded()) {
+            return new NearestCarParkPage(carParkSnapshotService.findNearest(latitude, longitude, limit, offset), null);
+        }
+
+        // Pin one cache generation for the whole lookup
+        CarParkRedisRepository resultCache = carParkRedisRepository.getIfAvailable();
+        long generation = readGeneration(resultCache);
+        String cacheKey = nearestCacheKey(latitude, longitude, limit, offset);
+        if (generation != NO_GENERATION && requestedGeneration != null && requestedGeneration < generation) {
+            Optional<CachedNearestResult> pinned = resultCache.getCachedNearestCarParks(requestedGeneration, cacheKey);
+            if (pinned.isPresent()) {
+                logger.debug("Found nearest car parks in requested generation {}", requestedGeneration);
+                return new NearestCarParkPage(pinned.get().getCarParks(), requestedGeneration);
+            }
+        }
+        if (generation != NO_GENERATION) {
+            Optional<CachedNearestResult> cached = resultCache.getCachedNearestCarParks(generation, cacheKey);
+            if (cached.isPresent()) {
+                logger.debug("Found nearest car parks in Redis result cache");
+                if (cached.get().isStaleAt(System.currentTimeMillis())) {
+                    refreshInBackground(resultCache, generation, cacheKey, latitude, longitude, limit, offset);
+                }
+                return page(cached.get().getCarParks(), generation);
+            }
+            // Every availability run starts a new generation, so after a bump the previous
+            // generation's entry is served as stale while the new one is loaded in the background
+            long previousGeneration = generation - 1;
+            if (previousGeneration >= 0 && (requestedGeneration == null || requestedGeneration != previousGeneration)) {
+                Optional<CachedNearestResult> previous = resultCache.getCachedNearestCarParks(previousGeneration, cacheKey);
+                if (previous.isPresent()) {
+                    logger.debug("Serving nearest car parks from previous generation {}", previousGeneration);
+                    refreshInBackground(resultCache, generation, cacheKey, latitude, longitude, limit, offset);
+                    return page(previous.get().getCarParks(), previousGeneration);
+                }
+            }
+        }
+
+        String flightKey = generation + ":" + cacheKey;
+        return page(nearestLoads.execute(
+                flightKey,
+                coalesceWait,
+                () -> loadNearest(resultCache, generation, cacheKey, latitude, longitude, limit, offset),
+                () -> convertToResponseDTO(findNearestSummaries(latitude, longitude, limit, offset))),
+                generation);
+    }
+
+    private NearestCarParkPage page(List<CarParkResponseDTO> carParks, long generation) {
+        return new NearestCarParkPage(carParks, generation != NO_GENERATION ? generation : null);
+    }
+
+    /**
+     * Resolve a page of nearest car parks matching attribute filters, a vehicle height and a parking time.
+     * Filtered results are not kept in the Redis caches; the snapshot answers them from its bitsets.
+     * Without a snapshot, concurrent identical requests share one database query.
+     */
+    private List<CarParkResponseDTO> findNearestMatching(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset,
+            Map<CarParkSnapshot.Attribute, List<String>> filters,
+            BigDecimal vehicleHeight,
+            ParkingTimeFilter parkingTime) {
+        if (carParkSnapshotService.isLoaded()) {
+            return carParkSnapshotService.findNearest(
+                    latitude, longitude, limit, offset, filters, vehicleHeight, parkingTime);
+        }
+        logger.debug("No snapshot loaded, querying database for filtered nearest car parks");
+        String flightKey = "m:" + nearestCacheKey(latitude, longitude, limit, offset)
+                + (filters.isEmpty() ? "" : ":f" + filterHash(filters))
+                + (vehicleHeight == null ? "" : ":h" + vehicleHeight.toPlainString())
+                + (parkingTime == null ? "" : ":t" + parkingTime.toKey());
+        Supplier<List<CarParkResponseDTO>> query = () -> convertToResponseDTO(
+                geohashNearestSearchService.findNearestMatching(latitude.doubleValue(), longitude.doubleValue(),
+                        limit, offset, filters, vehicleHeight, parkingTime));
+        return nearestLoads.execute(flightKey, coalesceWait, query, query);
+    }
+
+    /**
+     * Reload a stale entry off the request thread; at most one refresh runs per key.
+     * Refreshes run on a small bounded pool, not the common fork-join pool.
+     */
+    private void refreshInBackground(
+            CarParkRedisRepository resultCache,
+            long generation,
+            String cacheKey,
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset) {
+        String refreshKey = generation + ":" + cacheKey;
+        if (!refreshing.add(refreshKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    loadNearest(resultCache, generation, cacheKey, latitude, longitude, limit, offset);
+                } catch (RuntimeException e) {
+                    logger.warn("Background refresh of nearest car parks failed for key: {}", cacheKey, e);
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The stale entry keeps being served until a later request finds room in the queue
+            refreshing.remove(refreshKey);
+            logger.debug("Refresh queue full, skipping background refresh for key: {}", cacheKey);
+        }
+    }
+
+    /**
+     * Load a page of nearest car parks and store it under the pinned generation
+     */
+    private List<CarParkResponseDTO> loadNearest(
+            CarParkRedisRepository resultCache,
+            long generation,
+            String cacheKey,
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset) {
+        List<CarParkSummary> carParks = findNearestSummaries(latitude, longitude, limit, offset);
+        List<CarParkResponseDTO> results = convertToResponseDTO(carParks);
+
+        if (generation != NO_GENERATION) {
+            resultCache.cacheNearestCarParks(
+                    generation,
+                    cacheKey,
+                    results,
+                    carParks.stream().map(CarParkSummary::getCarParkNo).collect(Collectors.toList()));
+        }
+        return results;
+    }
+
+    private List<CarParkSummary> findNearestSummaries(
+            BigDecimal latitude,
+            BigDecimal longitude,
+            int limit,
+            int offset) {
+        // The Redis geo index only serves first pages; it cannot skip an offset
+        if (offset == 0) {
+            List<CarParkSummary> cachedResults = redisGeospatialService.findNearbyCarParks(
                     latitude,
                     longitude,
-                    50,
+                    GEO_SEARCH_RADIUS_KM,
                     limit);
 
             if (cachedResults != null && !cachedResults.isEmpty()) {
                 logger.debug(
                         "Found {} car parks in Redis cache",
                         cachedResults.size());
-                return convertToResponseDTO(cachedResults);
+                return cachedResults;
             }
+        }
 
-            // Fallback to database query
-            logger.debug(
-                    "Cache miss, querying database for nearest car parks with limit");
-            Point searchPoint = createSearchPoint(latitude, longitude);
+        // Fallback to database query
+        logger.debug("Cache miss, querying database for nearest car parks");
+        return geohashNearestSearchService.findNearest(
+                latitude.doubleValue(),
+                longitude.doubleValue(),
+                limit,
+                offset);
+    }
 
-            List<CarPark> carParks = carParkMySqlRepository.findNearestCarParksWithPoint(
-                    searchPoint,
-                    limit,
-                    0);
+    /**
+     * Version of the data nearest results are computed from: the snapshot build time and
+     * the Redis cache generation, both of which change on every ingestion run
+     */
+    private String dataVersion() {
+        StringBuilder version = new StringBuilder();
+        if (carParkSnapshotService.isLoaded()) {
+            version.append('s').append(Long.toHexString(carParkSnapshotService.getSnapshot().getCreatedAtMillis()));
+        }
+        long generation = readGeneration(carParkRedisRepository.getIfAvailable());
+        if (generation != NO_GENERATION) {
+            version.append('g').append(generation);
+        }
+        return version.length() > 0 ? version.toString() : null;
+    }
 
-            return convertToResponseDTO(carParks);
+    private long readGeneration(CarParkRedisRepository resultCache) {
+        if (resultCache == null) {
+            return NO_GENERATION;
+        }
+        try {
+            return resultCache.currentGeneration();
         } catch (Exception e) {
-            logger.error("Error finding nearest car parks with limit", e);
-            throw new RuntimeException(
-                    "Failed to find nearest car parks with limit",
-                    e);
+            logger.warn("Redis result cache unavailable, skipping it", e);
+            return NO_GENERATION;
         }
     }
 
     /**
-     * Create a JTS Point for database queries
+     * Non-blank filter values of the request by attribute, empty when nothing is filtered
+     */
+    private Map<CarParkSnapshot.Attribute, List<String>> attributeFilters(NearestCarParkRequestDTO request) {
+        Map<CarParkSnapshot.Attribute, List<String>> filters = new EnumMap<>(CarParkSnapshot.Attribute.class);
+        addFilter(filters, CarParkSnapshot.Attribute.CAR_PARK_TYPE, request.getCarParkType());
+        addFilter(filters, CarParkSnapshot.Attribute.TYPE_OF_PARKING_SYSTEM, request.getTypeOfParkingSystem());
+        addFilter(filters, CarParkSnapshot.Attribute.NIGHT_PARKING, request.getNightParking());
+        addFilter(filters, CarParkSnapshot.Attribute.FREE_PARKING, request.getFreeParking());
+        addFilter(filters, CarParkSnapshot.Attribute.CAR_PARK_BASEMENT, request.getCarParkBasement());
+        addFilter(filters, CarParkSnapshot.Attribute.GANTRY_HEIGHT, request.getGantryHeight());
+        return filters;
+    }
+
+    /**
+     * Resolve the request's parking time in the car parks' time zone, defaulting to now for a
+     * free-parking filter without a time. Returns null when the request has no time filter.
      */
-    private Point createSearchPoint(BigDecimal latitude, BigDecimal longitude) {
-        Point point = geometryFactory.createPoint(
-                new Coordinate(longitude.doubleValue(), latitude.doubleValue()));
-        point.setSRID(4326);
-        return point;
+    private ParkingTimeFilter parkingTimeFilter(NearestCarParkRequestDTO request) {
+        boolean free = Boolean.TRUE.equals(request.getFree());
+        if (request.getAt() == null && !free) {
+            return null;
+        }
+        ZoneId zone = ZoneId.of(CarParkConstants.CAR_PARK_TIME_ZONE);
+        LocalDateTime localTime = request.getAt() != null
+                ? request.getAt().atZoneSameInstant(zone).toLocalDateTime()
+                : LocalDateTime.now(zone);
+        return ParkingTimeFilter.of(localTime, publicHolidayCalendar.isPublicHoliday(localTime.toLocalDate()), free);
+    }
+
+    private void addFilter(Map<CarParkSnapshot.Attribute, List<String>> filters, CarParkSnapshot.Attribute attribute,
+            List<String> values) {
+        if (values == null) {
+            return;
+        }
+        List<String> trimmed = values.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+        if (!trimmed.isEmpty()) {
+            filters.put(attribute, trimmed);
+        }
     }
 
     /**
-     * Convert CarPark entities to response DTOs
+     * Short stable hash of the filters, since filter values may hold characters an ETag cannot
+     */
+    private String filterHash(Map<CarParkSnapshot.Attribute, List<String>> filters) {
+        CRC32 crc = new CRC32();
+        filters.forEach((attribute, values) -> crc.update(
+                (attribute.name() + "=" + String.join("|", values).toUpperCase(Locale.ROOT) + ";")
+                        .getBytes(StandardCharsets.UTF_8)));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private String nearestCacheKey(BigDecimal latitude, BigDecimal longitude, int limit, int offset) {
+        return latitude.setScale(CACHE_KEY_COORDINATE_SCALE, RoundingMode.HALF_UP).toPlainString()
+                + ":" + longitude.setScale(CACHE_KEY_COORDINATE_SCALE, RoundingMode.HALF_UP).toPlainString()
+                + ":" + limit
+                + ":" + offset;
+    }
+
+    /**
+     * Convert car park summaries to response DTOs
      */
     private List<CarParkResponseDTO> convertToResponseDTO(
-            List<CarPark> carParks) {
+            List<CarParkSummary> carParks) {
         return carParks
                 .stream()
                 .map(carPark -> new CarParkResponseDTO(
@@ -149,4 +476,26 @@ public class CachedCarParkService {
                         carPark.getAvailableLots()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * A page of nearest car parks and the cache generation it was read from, or null when it
+     * was not served through the Redis result cache, for example from the snapshot
+     */
+    public static class NearestCarParkPage {
+        private final List<CarParkResponseDTO> carParks;
+        private final Long generation;
+
+        public NearestCarParkPage(List<CarParkResponseDTO> carParks, Long generation) {
+            this.carParks = carParks;
+            this.generation = generation;
+        }
+
+        public List<CarParkResponseDTO> getCarParks() {
+            return carParks;
+        }
+
+        public Long getGeneration() {
+            return generation;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
 import com.example.carpark.entity.CarParkAvailability;
 import com.example.carpark.repository.external.CarParkExternalApiRepository;
 import com.example.carpark.repository.mysql.CarParkMySqlRepository;
@@ -9,6 +10,7 @@ import java.util.List;
 import java.util.ArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -20,14 +22,17 @@ public class CarParkAvailabilityService {
     private final CarParkMySqlRepository carParkMySqlRepository;
     private final CarParkExternalApiRepository carParkExternalApiRepository;
     private final RedisGeospatialService redisGeospatialService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CarParkAvailabilityService(
             CarParkMySqlRepository carParkMySqlRepository,
             CarParkExternalApiRepository carParkExternalApiRepository,
-            RedisGeospatialService redisGeospatialService) {
+            RedisGeospatialService redisGeospatialService,
+            ApplicationEventPublisher eventPublisher) {
         this.carParkMySqlRepository = carParkMySqlRepository;
         this.carParkExternalApiRepository = carParkExternalApiRepository;
         this.redisGeospatialService = redisGeospatialService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -40,6 +45,8 @@ public class CarParkAvailabilityService {
         try {
             carParkExternalApiRepository.fetchCarParkAvailabilityStreaming(
                     this::processCarParkAvailabilityData);
+            carParkMySqlRepository.evictSecondLevelCache();
+            eventPublisher.publishEvent(new CarParkDataRefreshedEvent("availability"));
         } catch (Exception e) {
             logger.error("Error updating car park availability", e);
             throw new RuntimeException("Failed to update car park availability", e);
@@ -57,14 +64,13 @@ public class CarParkAvailabilityService {
                     data.getCarparkNumber(), data.getTotalLots(), data.getAvailableLots(), data.getLotType());
 
             int updatedRows = carParkMySqlRepository.updateCarParkAvailabilityBatch(
-                    data.getCarparkNumber(), data.getTotalLots(), data.getAvailableLots(),
-                    data.getLotType(), "SYSTEM");
+                    data.getCarparkNumber(), data.getTotalLots(), data.getAvailableLots(), "SYSTEM");
 
             if (updatedRows > 0) {
                 logger.debug("Updated existing car park: {}", data.getCarparkNumber());
             } else {
                 // Check if car park exists but couldn't be updated (maybe different schema)
-                var existingCarPark = carParkMySqlRepository.findByCarParkNoAndDeletedAtIsNull(data.getCarparkNumber());
+                var existingCarPark = carParkMySqlRepository.findActiveByCarParkNo(data.getCarparkNumber());
 
                 if (existingCarPark.isPresent()) {
                     // Car park exists but update failed - log warning and skip
@@ -120,8 +126,7 @@ public class CarParkAvailabilityService {
         logger.debug("Executing batch update for {} car parks", carParksToUpdate.size());
 
         return carParkMySqlRepository.updateCarParkAvailabilityBatchMultiple(
-                builder.getTotalLotsCases(), builder.getAvailableLotsCases(),
-                builder.getCarParkTypeCases(), carParkNumbers, "SYSTEM");
+                builder.getTotalLotsCases(), builder.getAvailableLotsCases(), carParkNumbers, "SYSTEM");
     }
 
     /**
@@ -130,13 +135,10 @@ public class CarParkAvailabilityService {
     private static class BatchUpdateBuilder {
         private final StringBuilder totalLotsCases = new StringBuilder();
         private final StringBuilder availableLotsCases = new StringBuilder();
-        private final StringBuilder carParkTypeCases = new StringBuilder();
 
         public void addCarParkData(String carparkNo, CarParkAvailability data) {
             totalLotsCases.append("WHEN '").append(carparkNo).append("' THEN ").append(data.getTotalLots());
             availableLotsCases.append("WHEN '").append(carparkNo).append("' THEN ").append(data.getAvailableLots());
-            carParkTypeCases.append("WHEN '").append(carparkNo).append("' THEN '")
-                    .append(data.getLotType() != null ? data.getLotType() : "UNKNOWN").append("'");
         }
 
         public String getTotalLotsCases() {
@@ -146,10 +148,6 @@ public class CarParkAvailabilityService {
         public String getAvailableLotsCases() {
             return availableLotsCases.toString() + " ELSE available_lots";
         }
-
-        public String getCarParkTypeCases() {
-            return carParkTypeCases.toString() + " ELSE car_park_type";
-        }
     }
 
     /**
@@ -0,0 +1,167 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.event.CarParkSnapshotUpdatedEvent;
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.common.exception.ErrorCode;
+import com.example.carpark.common.geo.WebMercator;
+import com.example.carpark.dto.response.CarParkClusterDTO;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves map tiles of car park clusters.
+ * Every zoom level is clustered on a fixed grid of cells per tile whenever the snapshot is
+ * replaced, which happens after each availability update or import, so serving a tile is a lookup.
+ */
+@Service
+public class CarParkClusterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarParkClusterService.class);
+
+    // About 0.1 m, well below what a cluster marker can show
+    private static final int CENTROID_SCALE = 6;
+
+    private final AtomicReference<ClusterTiles> currentTiles = new AtomicReference<>(ClusterTiles.EMPTY);
+
+    /**
+     * Recluster every zoom level from the new snapshot
+     */
+    @EventListener
+    public void onSnapshotUpdated(CarParkSnapshotUpdatedEvent event) {
+        try {
+            long start = System.nanoTime();
+            ClusterTiles tiles = ClusterTiles.build(event.getSnapshot());
+            currentTiles.set(tiles);
+            logger.info("Built car park cluster tiles for zoom 0-{} in {} ms",
+                    CarParkConstants.CLUSTER_MAX_ZOOM, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Failed to build car park cluster tiles, keeping the previous ones", e);
+        }
+    }
+
+    /**
+     * Clusters of the tile at z/x/y, empty when the tile holds no car parks
+     */
+    public List<CarParkClusterDTO> findTile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > CarParkConstants.CLUSTER_MAX_ZOOM
+                || x < 0 || x >= 1 << zoom
+                || y < 0 || y >= 1 << zoom) {
+            throw new CarParkException(
+                    CarParkConstants.ERROR_INVALID_TILE,
+                    ErrorCode.INVALID_TILE_COORDINATES.getCode(),
+                    ErrorCode.INVALID_TILE_COORDINATES.getHttpStatus());
+        }
+        return currentTiles.get().find(zoom, x, y);
+    }
+
+    /**
+     * Weak ETag of the current tile set, or null before the first build
+     */
+    public String tilesETag() {
+        ClusterTiles tiles = currentTiles.get();
+        return tiles == ClusterTiles.EMPTY ? null : "W/\"s" + Long.toHexString(tiles.createdAtMillis) + "\"";
+    }
+
+    /**
+     * Immutable clusters of one snapshot, keyed per zoom level by packed tile x/y
+     */
+    private static final class ClusterTiles {
+
+        static final ClusterTiles EMPTY = new ClusterTiles(0L, new ArrayList<>());
+
+        private final long createdAtMillis;
+        private final List<Map<Long, List<CarParkClusterDTO>>> levels;
+
+        private ClusterTiles(long createdAtMillis, List<Map<Long, List<CarParkClusterDTO>>> levels) {
+            this.createdAtMillis = createdAtMillis;
+            this.levels = levels;
+        }
+
+        static ClusterTiles build(CarParkSnapshot snapshot) {
+            int size = snapshot.size();
+            double[] worldX = new double[size];
+            double[] worldY = new double[size];
+            for (int row = 0; row < size; row++) {
+                worldX[row] = WebMercator.x(snapshot.getLongitude(row));
+                worldY[row] = WebMercator.y(snapshot.getLatitude(row));
+            }
+
+            List<Map<Long, List<CarParkClusterDTO>>> levels = new ArrayList<>();
+            for (int zoom = 0; zoom <= CarParkConstants.CLUSTER_MAX_ZOOM; zoom++) {
+                levels.add(buildLevel(snapshot, worldX, worldY, zoom));
+            }
+            return new ClusterTiles(snapshot.getCreatedAtMillis(), levels);
+        }
+
+        private static Map<Long, List<CarParkClusterDTO>> buildLevel(
+                CarParkSnapshot snapshot, double[] worldX, double[] worldY, int zoom) {
+            int cellZoom = zoom + CarParkConstants.CLUSTER_CELL_BITS;
+            // Sorted so clusters come out in the same order for the same data
+            Map<Long, Cluster> cells = new TreeMap<>();
+            for (int row = 0; row < snapshot.size(); row++) {
+                long cell = pack(WebMercator.cell(worldX[row], cellZoom), WebMercator.cell(worldY[row], cellZoom));
+                cells.computeIfAbsent(cell, key -> new Cluster()).add(snapshot, row);
+            }
+
+            Map<Long, List<CarParkClusterDTO>> tiles = new HashMap<>();
+            for (Map.Entry<Long, Cluster> entry : cells.entrySet()) {
+                int cellX = (int) (entry.getKey() >>> 32);
+                int cellY = (int) (long) entry.getKey();
+                long tile = pack(cellX >> CarParkConstants.CLUSTER_CELL_BITS, cellY >> CarParkConstants.CLUSTER_CELL_BITS);
+                tiles.computeIfAbsent(tile, key -> new ArrayList<>()).add(entry.getValue().toDto());
+            }
+            tiles.replaceAll((tile, clusters) -> Collections.unmodifiableList(clusters));
+            return tiles;
+        }
+
+        List<CarParkClusterDTO> find(int zoom, int x, int y) {
+            if (zoom >= levels.size()) {
+                return List.of();
+            }
+            return levels.get(zoom).getOrDefault(pack(x, y), List.of());
+        }
+
+        private static long pack(int x, int y) {
+            return ((long) x << 32) | (y & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Running totals of the car parks in one cell
+     */
+    private static final class Cluster {
+
+        private int count;
+        private int availableLots;
+        private double latitudeSum;
+        private double longitudeSum;
+
+        void add(CarParkSnapshot snapshot, int row) {
+            count++;
+            availableLots += snapshot.getAvailableLots(row);
+            latitudeSum += snapshot.getLatitude(row);
+            longitudeSum += snapshot.getLongitude(row);
+        }
+
+        CarParkClusterDTO toDto() {
+            return new CarParkClusterDTO(
+                    BigDecimal.valueOf(latitudeSum / count).setScale(CENTROID_SCALE, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(longitudeSum / count).setScale(CENTROID_SCALE, RoundingMode.HALF_UP),
+                    count,
+                    availableLots);
+        }
+    }
+}
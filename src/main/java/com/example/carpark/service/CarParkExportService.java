@@ -0,0 +1,237 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams every active car park with its current availability as NDJSON or CSV.
+ * Rows are written one at a time from the in-memory snapshot, or from a forward-only
+ * database cursor when no snapshot is loaded, so heap use does not grow with the dataset.
+ */
+@Service
+public class CarParkExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarParkExportService.class);
+
+    private static final String[] CSV_HEADER = {
+            "car_park_no", "address", "latitude", "longitude", "total_lots", "available_lots"
+    };
+
+    /**
+     * Supported export encodings
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        Format(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        /**
+         * Parse a format name, or return null when it is not supported
+         */
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.fileExtension.equals(name.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final CarParkSnapshotService carParkSnapshotService;
+    private final CarParkMySqlRepository carParkMySqlRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CarParkExportService(
+            CarParkSnapshotService carParkSnapshotService,
+            CarParkMySqlRepository carParkMySqlRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.carParkSnapshotService = carParkSnapshotService;
+        this.carParkMySqlRepository = carParkMySqlRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(CarParkConstants.EXPORT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Write all active car parks to the output stream in the given format
+     */
+    public void export(Format format, OutputStream out) throws IOException {
+        try (RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out)) {
+            if (carParkSnapshotService.isLoaded()) {
+                long rows = exportSnapshot(carParkSnapshotService.getSnapshot(), writer);
+                logger.info("Exported {} car parks as {} from snapshot", rows, format);
+            } else {
+                long rows = exportDatabase(writer);
+                logger.info("Exported {} car parks as {} from database", rows, format);
+            }
+        }
+    }
+
+    private long exportSnapshot(CarParkSnapshot snapshot, RowWriter writer) throws IOException {
+        for (int row = 0; row < snapshot.size(); row++) {
+            writer.write(
+                    snapshot.getCarParkNo(row),
+                    snapshot.getAddress(row),
+                    snapshot.getLatitudeDecimal(row),
+                    snapshot.getLongitudeDecimal(row),
+                    snapshot.getTotalLots(row),
+                    snapshot.getAvailableLots(row));
+        }
+        return snapshot.size();
+    }
+
+    /**
+     * A replica connection is held while the cursor is read, which is for the whole download, since rows
+     * are written to the client as they are read. A slow client therefore keeps the connection busy, so
+     * the transaction is bounded by {@link CarParkConstants#EXPORT_TIMEOUT_SECONDS}. The transaction
+     * timeout only applies to the query; the deadline is also checked per row, and an export that runs
+     * past it is cut off and its connection released.
+     */
+    private long exportDatabase(RowWriter writer) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CarParkConstants.EXPORT_TIMEOUT_SECONDS);
+        Long rows = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<CarParkSummary> summaries = carParkMySqlRepository.streamActiveSummaries()) {
+                Iterator<CarParkSummary> iterator = summaries.iterator();
+                while (iterator.hasNext()) {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new TransactionTimedOutException("Export did not finish within "
+                                + CarParkConstants.EXPORT_TIMEOUT_SECONDS + "s after writing " + count + " rows");
+                    }
+                    CarParkSummary summary = iterator.next();
+                    writer.write(
+                            summary.getCarParkNo(),
+                            summary.getAddress(),
+                            summary.getLatitude(),
+                            summary.getLongitude(),
+                            summary.getTotalLots() != null ? summary.getTotalLots() : 0,
+                            summary.getAvailableLots() != null ? summary.getAvailableLots() : 0);
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private interface RowWriter extends AutoCloseable {
+
+        void write(String carParkNo, String address, BigDecimal latitude, BigDecimal longitude,
+                int totalLots, int availableLots) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            // Jackson separates root values with a space by default; NDJSON lines must start with the object
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(String carParkNo, String address, BigDecimal latitude, BigDecimal longitude,
+                int totalLots, int availableLots) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("carParkNo", carParkNo);
+            generator.writeStringField("address", address);
+            generator.writeFieldName("latitude");
+            writeDecimal(latitude);
+            generator.writeFieldName("longitude");
+            writeDecimal(longitude);
+            generator.writeNumberField("totalLots", totalLots);
+            generator.writeNumberField("availableLots", availableLots);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        private void writeDecimal(BigDecimal value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(value);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final CSVWriter csvWriter;
+
+        CsvRowWriter(OutputStream out) {
+            this.csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            csvWriter.writeNext(CSV_HEADER, false);
+        }
+
+        @Override
+        public void write(String carParkNo, String address, BigDecimal latitude, BigDecimal longitude,
+                int totalLots, int availableLots) {
+            csvWriter.writeNext(new String[] {
+                    carParkNo,
+                    address,
+                    latitude != null ? latitude.toPlainString() : "",
+                    longitude != null ? longitude.toPlainString() : "",
+                    Integer.toString(totalLots),
+                    Integer.toString(availableLots)
+            }, false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            csvWriter.close();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.common.event.CarParkSnapshotUpdatedEvent;
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.entity.CarPark;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import com.example.carpark.repository.snapshot.CarParkSnapshotFileRepository;
+import com.example.carpark.repository.snapshot.SnapshotCarParkList;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves nearest queries from an in-memory car park snapshot.
+ * On startup the last snapshot file is mapped so the node can answer immediately,
+ * then the snapshot is resynchronised from the database by {@link StartupCacheWarmer}.
+ */
+@Service
+public class CarParkSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarParkSnapshotService.class);
+
+    private final CarParkMySqlRepository carParkMySqlRepository;
+    private final CarParkSnapshotFileRepository carParkSnapshotFileRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate primaryRead;
+    private final AtomicReference<CarParkSnapshot> currentSnapshot = new AtomicReference<>(CarParkSnapshot.EMPTY);
+    // Set by every rebuild request and cleared by the rebuild that serves it
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public CarParkSnapshotService(
+            CarParkMySqlRepository carParkMySqlRepository,
+            CarParkSnapshotFileRepository carParkSnapshotFileRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.carParkMySqlRepository = carParkMySqlRepository;
+        this.carParkSnapshotFileRepository = carParkSnapshotFileRepository;
+        this.eventPublisher = eventPublisher;
+        // A new read-write transaction routes the read to the primary and sees every commit made before it
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Rebuild the snapshot whenever car park data has been written
+     */
+    @EventListener
+    public void onCarParkDataRefreshed(CarParkDataRefreshedEvent event) {
+        logger.debug("Car park data refreshed by {}, rebuilding snapshot", event.getSource());
+        rebuildFromDatabase();
+    }
+
+    /**
+     * Replace the current snapshot with the last one written to disk
+     */
+    public void loadFromFile() {
+        try {
+            carParkSnapshotFileRepository.load().ifPresent(snapshot -> {
+                currentSnapshot.set(snapshot);
+                logger.info("Loaded car park snapshot with {} rows", snapshot.size());
+                eventPublisher.publishEvent(new CarParkSnapshotUpdatedEvent(snapshot));
+            });
+        } catch (IOException e) {
+            logger.warn("Could not load car park snapshot, waiting for database sync", e);
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the active car parks in the database and persist it.
+     * Requests that arrive while a rebuild is running are coalesced into one more rebuild,
+     * run by the thread already rebuilding, so at most one rebuild runs and one is pending
+     * however many writers finish at once. The pending read starts after the last request.
+     */
+    public void rebuildFromDatabase() {
+        rebuildRequested.set(true);
+        while (rebuildRequested.get() && rebuildLock.tryLock()) {
+            try {
+                if (rebuildRequested.getAndSet(false)) {
+                    rebuildOnce();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+
+    private void rebuildOnce() {
+        try {
+            List<CarPark> carParks = primaryRead.execute(status -> carParkMySqlRepository.findAllActive());
+            CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(carParks, System.currentTimeMillis());
+            currentSnapshot.set(snapshot);
+            logger.info("Rebuilt car park snapshot with {} rows", snapshot.size());
+            eventPublisher.publishEvent(new CarParkSnapshotUpdatedEvent(snapshot));
+
+            carParkSnapshotFileRepository.save(snapshot);
+        } catch (IOException e) {
+            logger.error("Failed to write car park snapshot", e);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild car park snapshot from database", e);
+        }
+    }
+
+    public boolean isLoaded() {
+        return !currentSnapshot.get().isEmpty();
+    }
+
+    public CarParkSnapshot getSnapshot() {
+        return currentSnapshot.get();
+    }
+
+    /**
+     * Find nearest car parks with available lots from the current snapshot.
+     * The result is a view over snapshot rows that can be written as JSON without mapping to DTOs.
+     */
+    public List<CarParkResponseDTO> findNearest(BigDecimal latitude, BigDecimal longitude, int limit, int offset) {
+        CarParkSnapshot snapshot = currentSnapshot.get();
+        int[] rows = snapshot.findNearest(latitude.doubleValue(), longitude.doubleValue(), limit, offset);
+        return new SnapshotCarParkList(snapshot, rows);
+    }
+
+    /**
+     * Find nearest car parks with available lots whose attributes match the filters and, when given,
+     * whose gantry the vehicle height clears and whose parking rules allow the parking time.
+     * Only rows in the precomputed bitsets are visited.
+     */
+    public List<CarParkResponseDTO> findNearest(BigDecimal latitude, BigDecimal longitude, int limit, int offset,
+            Map<CarParkSnapshot.Attribute, List<String>> filters, BigDecimal vehicleHeight,
+            ParkingTimeFilter parkingTime) {
+        CarParkSnapshot snapshot = currentSnapshot.get();
+        BitSet candidates = snapshot.rowsMatching(filters);
+        if (vehicleHeight != null) {
+            candidates = intersect(candidates, snapshot.rowsClearing(vehicleHeight.doubleValue()));
+        }
+        if (parkingTime != null) {
+            candidates = intersect(candidates, snapshot.rowsAllowing(parkingTime));
+        }
+        int[] rows = snapshot.findNearest(latitude.doubleValue(), longitude.doubleValue(), limit, offset, candidates);
+        return new SnapshotCarParkList(snapshot, rows);
+    }
+
+    private BitSet intersect(BitSet candidates, BitSet rows) {
+        if (candidates == null) {
+            return rows;
+        }
+        candidates.and(rows);
+        return candidates;
+    }
+
+    /**
+     * Find car parks inside a bounding box from the current snapshot, whether or not they have lots free
+     */
+    public List<CarParkResponseDTO> findWithin(
+            BigDecimal minLatitude, BigDecimal minLongitude, BigDecimal maxLatitude, BigDecimal maxLongitude,
+            int limit) {
+        CarParkSnapshot snapshot = currentSnapshot.get();
+        int[] rows = snapshot.findWithin(minLatitude.doubleValue(), minLongitude.doubleValue(),
+                maxLatitude.doubleValue(), maxLongitude.doubleValue(), limit);
+        return new SnapshotCarParkList(snapshot, rows);
+    }
+}
@@ -1,25 +1,42 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.common.geo.GeoHash;
 import com.example.carpark.entity.CarPark;
 import com.example.carpark.repository.mysql.CarParkMySqlRepository;
 import com.example.carpark.service.CoordinateConversionService;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for streaming CSV import of car park data
@@ -29,6 +46,14 @@ public class CarParkStreamingImportService {
 
     private static final Logger logger = LoggerFactory.getLogger(CarParkStreamingImportService.class);
     private static final int CHUNK_SIZE = 100;
+    private static final char FINGERPRINT_SEPARATOR = '\u001F';
+    // Part of every row fingerprint. Bump it whenever a column derived from the CSV changes
+    // (coordinate projection, geohash, gantry height value, parking time rules), or when stored
+    // columns need repair, so the next import rewrites every row instead of skipping it as unchanged.
+    // 2: restores car_park_type, which availability updates used to overwrite with the lot type.
+    // 3: gantry heights are parsed like the V4 backfill, so ".5" or "+1.8" no longer count as gantries.
+    static final int DERIVATION_VERSION = 3;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
 
     @Value("${carpark.data.csv.path}")
     private String csvFilePath;
@@ -37,63 +62,119 @@ public class CarParkStreamingImportService {
     private final RedisGeospatialService redisGeospatialService;
     private final GeometryFactory geometryFactory;
     private final CoordinateConversionService coordinateConversionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CarParkStreamingImportService(
             CarParkMySqlRepository carParkMySqlRepository,
             RedisGeospatialService redisGeospatialService,
             GeometryFactory geometryFactory,
-            CoordinateConversionService coordinateConversionService) {
+            CoordinateConversionService coordinateConversionService,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
         this.carParkMySqlRepository = carParkMySqlRepository;
         this.redisGeospatialService = redisGeospatialService;
         this.geometryFactory = geometryFactory;
         this.coordinateConversionService = coordinateConversionService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Import car park data from CSV using streaming approach
      */
-    @Transactional
     public void importCarParkDataStreaming() {
         logger.info("Starting streaming import of car park data from: {}", csvFilePath);
 
+        try (Reader reader = new FileReader(csvFilePath, StandardCharsets.UTF_8)) {
+            importCarParkData(reader);
+        } catch (IOException e) {
+            logger.error("Error reading CSV file", e);
+            throw new RuntimeException("Failed to import car park data", e);
+        }
+    }
+
+    /**
+     * Import car park data from an uploaded CSV stream, optionally gzip-compressed.
+     * The stream is parsed row by row and never buffered as a whole.
+     */
+    public void importCarParkDataStreaming(InputStream inputStream) {
+        logger.info("Starting streaming import of car park data from uploaded stream");
+
+        try (Reader reader = new InputStreamReader(decompressIfGzipped(inputStream), StandardCharsets.UTF_8)) {
+            importCarParkData(reader);
+        } catch (IOException e) {
+            logger.error("Error reading uploaded CSV stream", e);
+            throw new RuntimeException("Failed to import car park data", e);
+        }
+    }
+
+    /**
+     * Parse CSV rows from the reader and write them chunk by chunk
+     */
+    ImportStats importCarParkData(Reader source) throws IOException {
         ImportStats stats = new ImportStats();
-        List<CarPark> currentChunk = new ArrayList<>();
+        ImportChunk currentChunk = new ImportChunk();
+        MessageDigest digest = createRowDigest();
 
-        try (CSVReader reader = new CSVReader(new FileReader(csvFilePath))) {
+        try (CSVReader reader = new CSVReader(new BufferedReader(source, READ_BUFFER_SIZE))) {
             String[] header = reader.readNext();
             if (header == null) {
                 throw new RuntimeException("CSV file is empty or invalid");
             }
             logger.info("CSV header: {}", String.join(", ", header));
 
-            processCsvRows(reader, stats, currentChunk);
+            processCsvRows(reader, stats, currentChunk, digest);
             processFinalChunk(currentChunk, stats);
 
-            logger.info("Streaming import completed. Total processed: {}, Total imported: {}",
-                    stats.getTotalProcessed(), stats.getTotalImported());
+            logger.info("Streaming import completed. Total processed: {}, Total imported: {}, Unchanged: {}, Failed: {}",
+                    stats.getTotalProcessed(), stats.getTotalImported(), stats.getTotalSkipped(), stats.getTotalFailed());
 
-            cacheCarParkLocationsInRedis();
-        } catch (IOException | CsvValidationException e) {
-            logger.error("Error reading CSV file", e);
+            if (stats.getTotalImported() > 0) {
+                cacheCarParkLocationsInRedis();
+                eventPublisher.publishEvent(new CarParkDataRefreshedEvent("import"));
+            } else {
+                logger.info("No car park rows changed, skipping Redis location cache refresh");
+            }
+            return stats;
+        } catch (CsvValidationException e) {
+            logger.error("Error parsing CSV data", e);
             throw new RuntimeException("Failed to import car park data", e);
         }
     }
 
+    /**
+     * Wrap the stream in a GZIP decoder when it starts with the GZIP magic bytes
+     */
+    private InputStream decompressIfGzipped(InputStream inputStream) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(inputStream, READ_BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+
+        if (first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+            logger.info("Detected gzip-compressed CSV upload");
+            return new GZIPInputStream(buffered, READ_BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
     /**
      * Process CSV rows in chunks
      */
-    private void processCsvRows(CSVReader reader, ImportStats stats, List<CarPark> currentChunk)
-            throws IOException, CsvValidationException {
+    private void processCsvRows(CSVReader reader, ImportStats stats, ImportChunk currentChunk,
+            MessageDigest digest) throws IOException, CsvValidationException {
         String[] row;
         while ((row = reader.readNext()) != null) {
             try {
-                CarPark carPark = parseCarParkRow(row);
+                CarPark carPark = parseCarParkRow(row, digest);
                 if (carPark != null) {
-                    currentChunk.add(carPark);
+                    currentChunk.add(carPark, Double.parseDouble(row[2].trim()), Double.parseDouble(row[3].trim()));
                     stats.incrementProcessed();
 
                     if (currentChunk.size() >= CHUNK_SIZE) {
-                        int chunkImported = processChunk(currentChunk);
+                        int chunkImported = processChunk(currentChunk, stats);
                         stats.addImported(chunkImported);
                         currentChunk.clear();
 
@@ -110,21 +191,23 @@ public class CarParkStreamingImportService {
     /**
      * Process the final chunk of car parks
      */
-    private void processFinalChunk(List<CarPark> currentChunk, ImportStats stats) {
+    private void processFinalChunk(ImportChunk currentChunk, ImportStats stats) {
         if (!currentChunk.isEmpty()) {
-            int chunkImported = processChunk(currentChunk);
+            int chunkImported = processChunk(currentChunk, stats);
             stats.addImported(chunkImported);
             logger.info("Final chunk: {} items, {} imported", currentChunk.size(), chunkImported);
         }
     }
 
     /**
-     * Cache car park locations in Redis after import
+     * Cache car park locations in Redis after import.
+     * The rows are read in a read-write transaction so they come from the primary, not a replica
+     * that may not have the chunks just committed yet.
      */
     private void cacheCarParkLocationsInRedis() {
         try {
             logger.info("Caching car park locations in Redis...");
-            List<CarPark> allCarParks = carParkMySqlRepository.findAll();
+            List<CarPark> allCarParks = transactionTemplate.execute(status -> carParkMySqlRepository.findAll());
             redisGeospatialService.cacheCarParkLocations(allCarParks);
             logger.info("Successfully cached {} car park locations in Redis", allCarParks.size());
         } catch (Exception e) {
@@ -133,31 +216,107 @@ public class CarParkStreamingImportService {
     }
 
     /**
-     * Process a chunk of car parks
+     * Process a chunk of car parks, skipping rows whose fingerprint has not changed.
+     * A failed write rolls back the whole chunk, which is counted as failed and the import
+     * moves on to the next chunk.
      */
-    private int processChunk(List<CarPark> chunk) {
-        int importedCount = 0;
+    private int processChunk(ImportChunk chunk, ImportStats stats) {
+        List<CarPark> carParks = applyCoordinates(chunk);
+        if (carParks.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            // Each chunk commits on its own so the persistence context never holds more than one chunk
+            Integer skipped = transactionTemplate.execute(status -> writeChunk(carParks));
+            int skippedCount = skipped != null ? skipped : 0;
+            // Counted only once the chunk has committed, so a rolled-back chunk is only reported as failed
+            stats.addSkipped(skippedCount);
+            return carParks.size() - skippedCount;
+        } catch (RuntimeException e) {
+            stats.addFailed(carParks.size());
+            logger.error("Failed to write chunk of {} car parks from {} to {}, rolled back",
+                    carParks.size(), carParks.get(0).getCarParkNo(), carParks.get(carParks.size() - 1).getCarParkNo(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Convert the chunk's SVY21 coordinates in one batch and attach them to the car parks.
+     * Rows whose coordinates cannot be converted are dropped.
+     */
+    private List<CarPark> applyCoordinates(ImportChunk chunk) {
+        double[] wgs84 = chunk.getWgs84();
+        coordinateConversionService.convertSVY21ToWGS84Batch(chunk.getSvy21(), wgs84, chunk.size());
+
+        List<CarPark> converted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            CarPark carPark = chunk.getCarParks().get(i);
+            double latitude = wgs84[i * 2];
+            double longitude = wgs84[i * 2 + 1];
+
+            if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+                logger.warn("Skipping car park {} with unconvertible coordinates", carPark.getCarParkNo());
+                continue;
+            }
+
+            carPark.setLatitude(BigDecimal.valueOf(latitude).setScale(8, RoundingMode.HALF_UP));
+            carPark.setLongitude(BigDecimal.valueOf(longitude).setScale(8, RoundingMode.HALF_UP));
+            carPark.setLocation(createSpatialLocation(carPark.getLongitude(), carPark.getLatitude()));
+            carPark.setGeohash(GeoHash.encode(latitude, longitude, CarParkConstants.GEOHASH_PRECISION));
+            converted.add(carPark);
+        }
+        return converted;
+    }
+
+    /**
+     * Write a chunk of car parks within the current transaction and return how many were skipped
+     * as unchanged; every other row is saved. A failed save leaves the transaction rollback-only,
+     * so it is not caught per row.
+     */
+    private int writeChunk(List<CarPark> chunk) {
+        int skippedCount = 0;
+        Map<String, CarPark> existingCarParks = findExistingCarParks(chunk);
 
         for (CarPark carPark : chunk) {
-            try {
-                var existingCarPark = carParkMySqlRepository.findByCarParkNoAndDeletedAtIsNull(
-                        carPark.getCarParkNo());
-
-                if (existingCarPark.isPresent()) {
-                    updateExistingCarPark(existingCarPark.get(), carPark);
-                    logger.debug("Updated existing car park: {}", carPark.getCarParkNo());
-                } else {
-                    carParkMySqlRepository.save(carPark);
-                    logger.debug("Imported new car park: {}", carPark.getCarParkNo());
-                }
+            CarPark existingCarPark = existingCarParks.get(carPark.getCarParkNo());
 
-                importedCount++;
-            } catch (Exception e) {
-                logger.error("Error saving car park {}: {}", carPark.getCarParkNo(), e.getMessage());
+            if (existingCarPark != null && isUnchanged(existingCarPark, carPark)) {
+                skippedCount++;
+                logger.debug("Skipped unchanged car park: {}", carPark.getCarParkNo());
+                continue;
+            }
+
+            if (existingCarPark != null) {
+                updateExistingCarPark(existingCarPark, carPark);
+                logger.debug("Updated existing car park: {}", carPark.getCarParkNo());
+            } else {
+                carParkMySqlRepository.save(carPark);
+                logger.debug("Imported new car park: {}", carPark.getCarParkNo());
             }
         }
 
-        return importedCount;
+        return skippedCount;
+    }
+
+    /**
+     * A row is unchanged when its fingerprint, which covers the derivation version, matches
+     */
+    private boolean isUnchanged(CarPark existing, CarPark newData) {
+        return newData.getContentHash().equals(existing.getContentHash());
+    }
+
+    /**
+     * Look up the active car parks of a chunk in a single query, keyed by car park number
+     */
+    private Map<String, CarPark> findExistingCarParks(List<CarPark> chunk) {
+        List<String> carParkNumbers = chunk.stream()
+                .map(CarPark::getCarParkNo)
+                .collect(Collectors.toList());
+
+        return carParkMySqlRepository.findActiveByCarParkNoIn(carParkNumbers)
+                .stream()
+                .collect(Collectors.toMap(CarPark::getCarParkNo, Function.identity(), (first, second) -> first));
     }
 
     /**
@@ -168,6 +327,7 @@ public class CarParkStreamingImportService {
         existing.setLatitude(newData.getLatitude());
         existing.setLongitude(newData.getLongitude());
         existing.setLocation(createSpatialLocation(newData.getLongitude(), newData.getLatitude()));
+        existing.setGeohash(newData.getGeohash());
         existing.setTotalLots(newData.getTotalLots());
         existing.setAvailableLots(newData.getAvailableLots());
         existing.setCarParkType(newData.getCarParkType());
@@ -178,6 +338,7 @@ public class CarParkStreamingImportService {
         existing.setCarParkDecks(newData.getCarParkDecks());
         existing.setGantryHeight(newData.getGantryHeight());
         existing.setCarParkBasement(newData.getCarParkBasement());
+        existing.setContentHash(newData.getContentHash());
         existing.setUpdatedBy("SYSTEM");
         existing.setUpdatedAt(LocalDateTime.now());
 
@@ -187,7 +348,7 @@ public class CarParkStreamingImportService {
     /**
      * Parse a single CSV row into a CarPark entity
      */
-    private CarPark parseCarParkRow(String[] row) {
+    private CarPark parseCarParkRow(String[] row, MessageDigest digest) {
         try {
             if (row.length < 12) {
                 logger.warn("Row has insufficient columns: {}", row.length);
@@ -199,14 +360,12 @@ public class CarParkStreamingImportService {
                 return null;
             }
 
-            BigDecimal[] wgs84Coords = coordinateConversionService.convertSVY21ToWGS84(
-                    new BigDecimal(row[2].trim()), new BigDecimal(row[3].trim()));
+            logger.debug("Processing car park: {} with SVY21 coordinates: {}, {}",
+                    carParkNo, row[2], row[3]);
 
-            logger.debug("Processing car park: {} with coordinates: {}, {}",
-                    carParkNo, wgs84Coords[0], wgs84Coords[1]);
-
-            CarPark carPark = createCarParkFromRow(row, carParkNo, wgs84Coords);
-            carPark.setLocation(createSpatialLocation(wgs84Coords[1], wgs84Coords[0]));
+            // Coordinates are converted per chunk in applyCoordinates
+            CarPark carPark = createCarParkFromRow(row, carParkNo);
+            carPark.setContentHash(fingerprintRow(row, DERIVATION_VERSION, digest));
             carPark.setCreatedBy("SYSTEM");
             carPark.setUpdatedBy("SYSTEM");
 
@@ -217,15 +376,37 @@ public class CarParkStreamingImportService {
         }
     }
 
+    /**
+     * Compute a SHA-256 fingerprint over the derivation version and the trimmed columns of a CSV row
+     */
+    static String fingerprintRow(String[] row, int derivationVersion, MessageDigest digest) {
+        StringBuilder content = new StringBuilder().append(derivationVersion).append(FINGERPRINT_SEPARATOR);
+        for (int i = 0; i < 12; i++) {
+            content.append(row[i].trim()).append(FINGERPRINT_SEPARATOR);
+        }
+        return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Create the digest used for row fingerprints
+     */
+    static MessageDigest createRowDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Create CarPark entity from CSV row data
      */
-    private CarPark createCarParkFromRow(String[] row, String carParkNo, BigDecimal[] wgs84Coords) {
+    private CarPark createCarParkFromRow(String[] row, String carParkNo) {
         return new CarPark(
                 carParkNo,
                 row[1].trim(), // address
-                wgs84Coords[0], // latitude
-                wgs84Coords[1], // longitude
+                null, // latitude - set after batch coordinate conversion
+                null, // longitude - set after batch coordinate conversion
                 0, // total_lots - not in CSV, default to 0
                 0, // available_lots - not in CSV, default to 0
                 row[4].trim(), // car_park_type
@@ -263,12 +444,55 @@ public class CarParkStreamingImportService {
         return new ImportStats(totalCarParks, availableCarParks);
     }
 
+    /**
+     * Rows of the chunk being parsed, with their raw SVY21 coordinates held in a
+     * reusable primitive buffer for batch conversion
+     */
+    private static class ImportChunk {
+        private final List<CarPark> carParks = new ArrayList<>(CHUNK_SIZE);
+        private final double[] svy21 = new double[CHUNK_SIZE * 2];
+        private final double[] wgs84 = new double[CHUNK_SIZE * 2];
+
+        public void add(CarPark carPark, double easting, double northing) {
+            int offset = carParks.size() * 2;
+            svy21[offset] = easting;
+            svy21[offset + 1] = northing;
+            carParks.add(carPark);
+        }
+
+        public int size() {
+            return carParks.size();
+        }
+
+        public boolean isEmpty() {
+            return carParks.isEmpty();
+        }
+
+        public void clear() {
+            carParks.clear();
+        }
+
+        public List<CarPark> getCarParks() {
+            return carParks;
+        }
+
+        public double[] getSvy21() {
+            return svy21;
+        }
+
+        public double[] getWgs84() {
+            return wgs84;
+        }
+    }
+
     /**
      * Import statistics data class
      */
     public static class ImportStats {
         private long totalProcessed = 0;
         private long totalImported = 0;
+        private long totalSkipped = 0;
+        private long totalFailed = 0;
 
         public ImportStats() {
         }
@@ -286,6 +510,14 @@ public class CarParkStreamingImportService {
             this.totalImported += count;
         }
 
+        public void addSkipped(int count) {
+            this.totalSkipped += count;
+        }
+
+        public void addFailed(int count) {
+            this.totalFailed += count;
+        }
+
         public long getTotalProcessed() {
             return totalProcessed;
         }
@@ -293,5 +525,13 @@ public class CarParkStreamingImportService {
         public long getTotalImported() {
             return totalImported;
         }
+
+        public long getTotalSkipped() {
+            return totalSkipped;
+        }
+
+        public long getTotalFailed() {
+            return totalFailed;
+        }
     }
 }
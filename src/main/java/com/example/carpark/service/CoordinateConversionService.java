@@ -1,5 +1,7 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.geo.Svy21Projection;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +12,8 @@ import java.math.RoundingMode;
 
 /**
  * Service for converting coordinates between different coordinate systems
- * Currently supports SVY21 to WGS84 conversion with configurable parameters
+ * Currently supports SVY21 to WGS84 conversion using an inverse Transverse Mercator
+ * projection with a configurable origin
  */
 @Service
 public class CoordinateConversionService {
@@ -30,13 +33,6 @@ public class CoordinateConversionService {
     @Value("${carpark.coordinate.origin.e:28001.642}")
     private double originE;
 
-    // Conversion factors for coordinate transformation
-    @Value("${carpark.coordinate.factor.lat:0.0000089831}")
-    private double latFactor;
-
-    @Value("${carpark.coordinate.factor.lon:0.0000111319}")
-    private double lonFactor;
-
     // Coordinate bounds validation
     @Value("${carpark.coordinate.bounds.lat.min:-90.0}")
     private double latMin;
@@ -50,40 +46,54 @@ public class CoordinateConversionService {
     @Value("${carpark.coordinate.bounds.lon.max:180.0}")
     private double lonMax;
 
+    private Svy21Projection projection;
+
+    /**
+     * Precompute the projection constants once the origin has been configured
+     */
+    @PostConstruct
+    public void initializeProjection() {
+        this.projection = new Svy21Projection(originLat, originLon, originN, originE);
+        logger.info(getConfigurationInfo());
+    }
+
     /**
-     * Convert SVY21 coordinates to WGS84 using configurable mathematical
-     * transformation
-     * This method can be extended to support different coordinate systems by
-     * configuring
-     * the appropriate origin points and conversion factors
+     * Convert SVY21 coordinates to WGS84
+     * Returns {latitude, longitude} rounded to 8 decimal places
+     *
+     * @throws IllegalArgumentException if the converted coordinates fall outside the configured bounds
      */
     public BigDecimal[] convertSVY21ToWGS84(BigDecimal svy21X, BigDecimal svy21Y) {
-        try {
-            // Calculate relative coordinates
-            double dN = svy21Y.doubleValue() - originN;
-            double dE = svy21X.doubleValue() - originE;
-
-            // Calculate latitude and longitude using floating point arithmetic
-            double lat = originLat + (dN * latFactor);
-            double lon = originLon + (dE * lonFactor);
-
-            // Validate coordinates are within configured bounds
-            if (isOutOfBounds(lat, lon)) {
-                logger.warn("Converted coordinates out of bounds: lat={}, lon={}", lat, lon);
-                throw new IllegalArgumentException("Coordinates out of bounds");
-            }
+        double[] wgs84 = new double[2];
+        projection.toWgs84(svy21X.doubleValue(), svy21Y.doubleValue(), wgs84, 0);
 
-            return new BigDecimal[] {
-                    BigDecimal.valueOf(lat).setScale(8, RoundingMode.HALF_UP),
-                    BigDecimal.valueOf(lon).setScale(8, RoundingMode.HALF_UP)
-            };
-        } catch (Exception e) {
-            logger.error("Error in coordinate conversion: X={}, Y={}", svy21X, svy21Y, e);
-            // Return default coordinates (can be configured)
-            return new BigDecimal[] {
-                    new BigDecimal("1.3521"),
-                    new BigDecimal("103.8198")
-            };
+        if (isOutOfBounds(wgs84[0], wgs84[1])) {
+            logger.warn("Converted coordinates out of bounds: X={}, Y={} -> lat={}, lon={}",
+                    svy21X, svy21Y, wgs84[0], wgs84[1]);
+            throw new IllegalArgumentException("Coordinates out of bounds");
+        }
+
+        return new BigDecimal[] {
+                BigDecimal.valueOf(wgs84[0]).setScale(8, RoundingMode.HALF_UP),
+                BigDecimal.valueOf(wgs84[1]).setScale(8, RoundingMode.HALF_UP)
+        };
+    }
+
+    /**
+     * Convert a batch of SVY21 coordinates without allocating per row.
+     * Input is interleaved {@code [x0, y0, x1, y1, ...]} and output is written as interleaved
+     * {@code [lat0, lon0, lat1, lon1, ...]}. Pairs that are not finite or fall outside the
+     * configured bounds are written as NaN.
+     */
+    public void convertSVY21ToWGS84Batch(double[] svy21, double[] wgs84, int count) {
+        projection.toWgs84(svy21, wgs84, count);
+
+        for (int i = 0; i < count; i++) {
+            int offset = i * 2;
+            if (isOutOfBounds(wgs84[offset], wgs84[offset + 1])) {
+                wgs84[offset] = Double.NaN;
+                wgs84[offset + 1] = Double.NaN;
+            }
         }
     }
 
@@ -92,8 +102,8 @@ public class CoordinateConversionService {
      * This can be configured per region or coordinate system
      */
     private boolean isOutOfBounds(double lat, double lon) {
-        // Use configurable bounds for coordinate validation
-        return lat < latMin || lat > latMax || lon < lonMin || lon > lonMax;
+        // Negated comparisons so that NaN is also treated as out of bounds
+        return !(lat >= latMin && lat <= latMax && lon >= lonMin && lon <= lonMax);
     }
 
     /**
@@ -102,7 +112,7 @@ public class CoordinateConversionService {
      */
     public String getConfigurationInfo() {
         return String.format(
-                "Coordinate Conversion Config - Origin: (%.8f, %.8f), Factors: (%.10f, %.10f), Bounds: Lat[%.2f, %.2f], Lon[%.2f, %.2f]",
-                originLat, originLon, latFactor, lonFactor, latMin, latMax, lonMin, lonMax);
+                "Coordinate Conversion Config - Origin: (%.8f, %.8f), False N/E: (%.3f, %.3f), Bounds: Lat[%.2f, %.2f], Lon[%.2f, %.2f]",
+                originLat, originLon, originN, originE, latMin, latMax, lonMin, lonMax);
     }
 }
@@ -0,0 +1,245 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.common.exception.ErrorCode;
+import com.example.carpark.common.geo.EncodedPolyline;
+import com.example.carpark.common.geo.GeoDistance;
+import com.example.carpark.dto.request.CorridorRequestDTO;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import com.example.carpark.repository.snapshot.SnapshotCarParkList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.locationtech.jts.geom.util.NoninvertibleTransformationException;
+import org.locationtech.jts.linearref.LengthIndexedLine;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds car parks with available lots within a buffer distance of a route,
+ * ordered by how far along the route they are.
+ * The route is buffered in a local metre plane with JTS. Candidates come from the snapshot's
+ * grid index one route segment envelope at a time, or from idx_location when no snapshot is loaded.
+ */
+@Service
+public class CorridorSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorridorSearchService.class);
+
+    private static final double METERS_PER_DEGREE = Math.PI * GeoDistance.EARTH_RADIUS_METERS / 180.0;
+    // Route vertices within this fraction of the buffer of the simplified line are dropped from the
+    // line the candidate envelopes are built from; the corridor itself buffers the full route
+    private static final double SIMPLIFY_TOLERANCE_RATIO = 0.1;
+    // Long segments are split so each envelope stays close to the corridor around it
+    private static final double MAX_SEGMENT_TO_BUFFER_RATIO = 4.0;
+
+    private final CarParkSnapshotService carParkSnapshotService;
+    private final CarParkMySqlRepository carParkMySqlRepository;
+    private final GeometryFactory geometryFactory;
+
+    public CorridorSearchService(
+            CarParkSnapshotService carParkSnapshotService,
+            CarParkMySqlRepository carParkMySqlRepository,
+            GeometryFactory geometryFactory) {
+        this.carParkSnapshotService = carParkSnapshotService;
+        this.carParkMySqlRepository = carParkMySqlRepository;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Find up to the request limit of car parks with available lots in the corridor,
+     * nearest the start of the route first
+     */
+    public List<CarParkResponseDTO> findAlongRoute(CorridorRequestDTO request) {
+        Corridor corridor = new Corridor(decodeRoute(request.getPolyline()), request.getBufferMeters());
+        if (carParkSnapshotService.isLoaded()) {
+            return findInSnapshot(carParkSnapshotService.getSnapshot(), corridor, request.getLimit());
+        }
+        logger.debug("No snapshot loaded, querying database for corridor");
+        return findInDatabase(corridor, request.getLimit());
+    }
+
+    private List<CarParkResponseDTO> findInSnapshot(CarParkSnapshot snapshot, Corridor corridor, int limit) {
+        BitSet visited = new BitSet(snapshot.size());
+        List<double[]> matches = new ArrayList<>();
+        for (Envelope envelope : corridor.segmentEnvelopes()) {
+            int[] candidates = snapshot.findWithin(
+                    envelope.getMinY(), envelope.getMinX(), envelope.getMaxY(), envelope.getMaxX(), snapshot.size());
+            for (int row : candidates) {
+                if (visited.get(row)) {
+                    continue;
+                }
+                visited.set(row);
+                if (snapshot.getAvailableLots(row) <= 0) {
+                    continue;
+                }
+                Coordinate local = corridor.toLocal(snapshot.getLongitude(row), snapshot.getLatitude(row));
+                if (corridor.covers(local)) {
+                    matches.add(new double[] { corridor.distanceAlong(local), row });
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble(match -> match[0]));
+        int[] rows = new int[Math.min(limit, matches.size())];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) matches.get(i)[1];
+        }
+        logger.debug("Corridor search checked {} snapshot rows, {} in corridor", visited.cardinality(), matches.size());
+        return new SnapshotCarParkList(snapshot, rows);
+    }
+
+    private List<CarParkResponseDTO> findInDatabase(Corridor corridor, int limit) {
+        List<CarParkSummary> carParks = carParkMySqlRepository.findSummariesWithAvailabilityInArea(corridor.areaInDegrees());
+        return carParks.stream()
+                .sorted(Comparator.comparingDouble(carPark -> corridor.distanceAlong(corridor.toLocal(
+                        carPark.getLongitude().doubleValue(), carPark.getLatitude().doubleValue()))))
+                .limit(limit)
+                .map(carPark -> new CarParkResponseDTO(
+                        carPark.getAddress(),
+                        carPark.getLatitude(),
+                        carPark.getLongitude(),
+                        carPark.getTotalLots(),
+                        carPark.getAvailableLots()))
+                .collect(Collectors.toList());
+    }
+
+    private Coordinate[] decodeRoute(String polyline) {
+        Coordinate[] route = null;
+        try {
+            route = EncodedPolyline.decode(polyline);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Rejected polyline: {}", e.getMessage());
+        }
+        if (route == null || route.length < 2) {
+            throw invalidPolyline(CarParkConstants.ERROR_INVALID_POLYLINE);
+        }
+        if (route.length > CarParkConstants.CORRIDOR_MAX_VERTICES) {
+            throw invalidPolyline(CarParkConstants.ERROR_ROUTE_TOO_LONG);
+        }
+        return route;
+    }
+
+    private static CarParkException invalidPolyline(String message) {
+        return new CarParkException(
+                message,
+                ErrorCode.INVALID_POLYLINE.getCode(),
+                ErrorCode.INVALID_POLYLINE.getHttpStatus());
+    }
+
+    /**
+     * A buffered route in an equirectangular plane in metres, centred on the route's mean latitude.
+     * Over a city-scale route the scale error of this plane is well under a percent.
+     */
+    private final class Corridor {
+
+        private final double bufferMeters;
+        private final double simplifyTolerance;
+        private final AffineTransformation toLocal;
+        private final AffineTransformation toDegrees;
+        private final LineString route;
+        private final LineString simplifiedRoute;
+        private final Geometry area;
+        private final PreparedGeometry preparedArea;
+        private final LengthIndexedLine lengthIndex;
+
+        Corridor(Coordinate[] coordinates, double bufferMeters) {
+            double latitudeSum = 0;
+            for (Coordinate coordinate : coordinates) {
+                latitudeSum += coordinate.y;
+            }
+            double meanLatitude = latitudeSum / coordinates.length;
+
+            this.bufferMeters = bufferMeters;
+            this.simplifyTolerance = bufferMeters * SIMPLIFY_TOLERANCE_RATIO;
+            this.toLocal = AffineTransformation.scaleInstance(
+                    METERS_PER_DEGREE * Math.cos(Math.toRadians(meanLatitude)), METERS_PER_DEGREE);
+            try {
+                this.toDegrees = toLocal.getInverse();
+            } catch (NoninvertibleTransformationException e) {
+                throw new IllegalStateException("Corridor projection is not invertible", e);
+            }
+            this.route = (LineString) toLocal.transform(geometryFactory.createLineString(coordinates));
+            if (route.getLength() > CarParkConstants.CORRIDOR_MAX_ROUTE_METERS) {
+                throw invalidPolyline(CarParkConstants.ERROR_ROUTE_TOO_LONG);
+            }
+            this.simplifiedRoute = (LineString) DouglasPeuckerSimplifier.simplify(route, simplifyTolerance);
+            this.area = route.buffer(bufferMeters);
+            this.preparedArea = PreparedGeometryFactory.prepare(area);
+            this.lengthIndex = new LengthIndexedLine(route);
+        }
+
+        Coordinate toLocal(double longitude, double latitude) {
+            Coordinate local = new Coordinate();
+            toLocal.transform(new Coordinate(longitude, latitude), local);
+            return local;
+        }
+
+        boolean covers(Coordinate local) {
+            return preparedArea.covers(geometryFactory.createPoint(local));
+        }
+
+        double distanceAlong(Coordinate local) {
+            return lengthIndex.project(local);
+        }
+
+        /**
+         * Envelopes in degrees of each simplified route segment, widened by the buffer plus the
+         * simplification tolerance so they still hold the full route's buffer. Segments longer
+         * than a few buffer widths are split into pieces.
+         */
+        List<Envelope> segmentEnvelopes() {
+            double maxPieceLength = bufferMeters * MAX_SEGMENT_TO_BUFFER_RATIO;
+            List<Envelope> envelopes = new ArrayList<>();
+            Coordinate[] vertices = simplifiedRoute.getCoordinates();
+            for (int i = 1; i < vertices.length; i++) {
+                Coordinate start = vertices[i - 1];
+                Coordinate end = vertices[i];
+                int pieces = Math.max(1, (int) Math.ceil(start.distance(end) / maxPieceLength));
+                for (int piece = 0; piece < pieces; piece++) {
+                    double from = (double) piece / pieces;
+                    double to = (double) (piece + 1) / pieces;
+                    Envelope envelope = new Envelope(
+                            start.x + (end.x - start.x) * from, start.x + (end.x - start.x) * to,
+                            start.y + (end.y - start.y) * from, start.y + (end.y - start.y) * to);
+                    envelope.expandBy(bufferMeters + simplifyTolerance);
+                    envelopes.add(toDegrees(envelope));
+                }
+            }
+            return envelopes;
+        }
+
+        /**
+         * The buffered corridor mapped back to longitude/latitude, for the database query
+         */
+        Geometry areaInDegrees() {
+            Geometry degrees = toDegrees.transform(area);
+            degrees.setSRID(4326);
+            return degrees;
+        }
+
+        private Envelope toDegrees(Envelope local) {
+            Coordinate min = new Coordinate();
+            Coordinate max = new Coordinate();
+            toDegrees.transform(new Coordinate(local.getMinX(), local.getMinY()), min);
+            toDegrees.transform(new Coordinate(local.getMaxX(), local.getMaxY()), max);
+            return new Envelope(min, max);
+        }
+    }
+}
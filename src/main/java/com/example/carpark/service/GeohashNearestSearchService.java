@@ -0,0 +1,166 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.geo.GeoDistance;
+import com.example.carpark.common.geo.GeoHash;
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.common.time.TimeWindowRule;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Nearest car park search over geohash cell ranges.
+ * The search scans the query cell and its eight neighbours on idx_geohash and only
+ * accepts results that are provably nearer than anything outside the scanned block,
+ * widening to coarser cells when needed and falling back to the spatial full scan.
+ */
+@Service
+public class GeohashNearestSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeohashNearestSearchService.class);
+
+    private final CarParkMySqlRepository carParkMySqlRepository;
+    private final GeometryFactory geometryFactory;
+
+    public GeohashNearestSearchService(
+            CarParkMySqlRepository carParkMySqlRepository,
+            GeometryFactory geometryFactory) {
+        this.carParkMySqlRepository = carParkMySqlRepository;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Find the page of nearest car parks with available lots, ordered by distance
+     */
+    @Transactional(readOnly = true)
+    public List<CarParkSummary> findNearest(double latitude, double longitude, int limit, int offset) {
+        int needed = offset + limit;
+
+        for (int precision = CarParkConstants.GEOHASH_SEARCH_START_PRECISION;
+                precision >= CarParkConstants.GEOHASH_SEARCH_MIN_PRECISION;
+                precision--) {
+            String cell = GeoHash.encode(latitude, longitude, precision);
+            List<CarParkSummary> candidates = findInCellBlock(cell);
+            double coveredRadius = coveredRadiusMeters(latitude, longitude, cell);
+
+            List<CarParkSummary> within = new ArrayList<>();
+            for (CarParkSummary carPark : candidates) {
+                if (distanceMeters(latitude, longitude, carPark) <= coveredRadius) {
+                    within.add(carPark);
+                }
+            }
+
+            if (within.size() >= needed) {
+                within.sort(Comparator.comparingDouble(carPark -> distanceMeters(latitude, longitude, carPark)));
+                logger.debug("Resolved nearest search from geohash cell {} ({} candidates)", cell, candidates.size());
+                return within.subList(offset, needed);
+            }
+        }
+
+        logger.debug("Geohash cells did not cover {} results, falling back to spatial scan", needed);
+        Point searchPoint = geometryFactory.createPoint(new Coordinate(longitude, latitude));
+        searchPoint.setSRID(4326);
+        return carParkMySqlRepository.findNearestSummariesWithPoint(searchPoint, limit, offset);
+    }
+
+    /**
+     * Find the page of nearest car parks with available lots whose attributes match the filters,
+     * whose gantry, if any, clears the vehicle height and whose compiled parking rules allow the
+     * parking time. Filtered searches skip the geohash cells, whose candidate counts the filters
+     * would make unpredictable, and run the spatial scan with the filters applied in SQL.
+     */
+    @Transactional(readOnly = true)
+    public List<CarParkSummary> findNearestMatching(double latitude, double longitude, int limit, int offset,
+            Map<CarParkSnapshot.Attribute, List<String>> filters, BigDecimal vehicleHeight,
+            ParkingTimeFilter parkingTime) {
+        Point searchPoint = geometryFactory.createPoint(new Coordinate(longitude, latitude));
+        searchPoint.setSRID(4326);
+        // SQL SUBSTRING positions are 1-based; position 0 reads as an empty, all-zero byte
+        Integer dayByte = null;
+        Integer holidayByte = null;
+        Integer slotBit = null;
+        if (parkingTime != null) {
+            dayByte = TimeWindowRule.encodedByteIndex(parkingTime.getDay(), parkingTime.getSlot()) + 1;
+            holidayByte = parkingTime.isPublicHoliday()
+                    ? TimeWindowRule.encodedByteIndex(TimeWindowRule.PUBLIC_HOLIDAY, parkingTime.getSlot()) + 1
+                    : 0;
+            slotBit = TimeWindowRule.encodedBit(parkingTime.getSlot());
+        }
+        return carParkMySqlRepository.findNearestSummariesMatching(
+                searchPoint,
+                joinValues(filters, CarParkSnapshot.Attribute.CAR_PARK_TYPE),
+                joinValues(filters, CarParkSnapshot.Attribute.TYPE_OF_PARKING_SYSTEM),
+                joinValues(filters, CarParkSnapshot.Attribute.NIGHT_PARKING),
+                joinValues(filters, CarParkSnapshot.Attribute.FREE_PARKING),
+                joinValues(filters, CarParkSnapshot.Attribute.CAR_PARK_BASEMENT),
+                joinValues(filters, CarParkSnapshot.Attribute.GANTRY_HEIGHT),
+                vehicleHeight,
+                dayByte,
+                holidayByte,
+                slotBit,
+                parkingTime != null && parkingTime.isFree(),
+                limit,
+                offset);
+    }
+
+    private String joinValues(Map<CarParkSnapshot.Attribute, List<String>> filters, CarParkSnapshot.Attribute attribute) {
+        List<String> values = filters.get(attribute);
+        return values == null ? null : String.join(",", values);
+    }
+
+    /**
+     * Load the car parks in a cell and its eight neighbours in one statement.
+     * Near the poles neighbours can repeat; a repeated prefix selects the same rows once.
+     */
+    private List<CarParkSummary> findInCellBlock(String cell) {
+        String[] patterns = GeoHash.cellWithNeighbours(cell);
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = patterns[i] + "%";
+        }
+        return carParkMySqlRepository.findSummariesWithAvailabilityInGeohashBlock(
+                patterns[0], patterns[1], patterns[2],
+                patterns[3], patterns[4], patterns[5],
+                patterns[6], patterns[7], patterns[8]);
+    }
+
+    /**
+     * Distance from the query point to the nearest edge of the 3x3 cell block around it.
+     * Every car park outside the block is at least this far away.
+     */
+    private double coveredRadiusMeters(double latitude, double longitude, String cell) {
+        double[] bounds = GeoHash.bounds(cell);
+        double height = bounds[2] - bounds[0];
+        double width = bounds[3] - bounds[1];
+        double minLat = bounds[0] - height;
+        double maxLat = bounds[2] + height;
+        double minLon = bounds[1] - width;
+        double maxLon = bounds[3] + width;
+
+        return Math.min(
+                Math.min(
+                        GeoDistance.haversineMeters(latitude, longitude, minLat, longitude),
+                        GeoDistance.haversineMeters(latitude, longitude, maxLat, longitude)),
+                Math.min(
+                        GeoDistance.haversineMeters(latitude, longitude, latitude, minLon),
+                        GeoDistance.haversineMeters(latitude, longitude, latitude, maxLon)));
+    }
+
+    private double distanceMeters(double latitude, double longitude, CarParkSummary carPark) {
+        return GeoDistance.haversineMeters(
+                latitude, longitude,
+                carPark.getLatitude().doubleValue(), carPark.getLongitude().doubleValue());
+    }
+}
@@ -2,15 +2,21 @@ package com.example.carpark.service;
 
 import com.example.carpark.entity.CarPark;
 import com.example.carpark.repository.mysql.CarParkMySqlRepository;
-import org.locationtech.jts.geom.Point;
+import com.example.carpark.repository.mysql.CarParkSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.redis.connection.RedisGeoCommands;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -19,14 +25,18 @@ public class RedisGeospatialService {
     private static final Logger logger = LoggerFactory.getLogger(RedisGeospatialService.class);
     private static final String CAR_PARK_LOCATIONS_KEY = "carpark:locations";
     private static final int CACHE_TTL_MINUTES = 15;
+    private static final int MIN_LOOKUP_WINDOW = 50;
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final CarParkMySqlRepository carParkMySqlRepository;
+    private final GeohashNearestSearchService geohashNearestSearchService;
 
     public RedisGeospatialService(RedisTemplate<String, Object> redisTemplate,
-            CarParkMySqlRepository carParkMySqlRepository) {
+            CarParkMySqlRepository carParkMySqlRepository,
+            GeohashNearestSearchService geohashNearestSearchService) {
         this.redisTemplate = redisTemplate;
         this.carParkMySqlRepository = carParkMySqlRepository;
+        this.geohashNearestSearchService = geohashNearestSearchService;
     }
 
     /**
@@ -56,32 +66,27 @@ public class RedisGeospatialService {
     }
 
     /**
-     * Find nearby car parks using Redis geospatial queries with database fallback
+     * Find nearby car parks using Redis geospatial queries with database fallback.
+     * Members come back sorted by distance and are resolved in windows with one
+     * projection query each, instead of one entity lookup per member.
      */
-    public List<CarPark> findNearbyCarParks(BigDecimal latitude, BigDecimal longitude,
+    public List<CarParkSummary> findNearbyCarParks(BigDecimal latitude, BigDecimal longitude,
             int radiusKm, int limit) {
         try {
             var results = redisTemplate.opsForGeo().radius(CAR_PARK_LOCATIONS_KEY,
-                    new org.springframework.data.geo.Point(longitude.doubleValue(), latitude.doubleValue()),
-                    radiusKm * 1000); // Convert km to meters
+                    new Circle(new org.springframework.data.geo.Point(longitude.doubleValue(), latitude.doubleValue()),
+                            new Distance(radiusKm, Metrics.KILOMETERS)),
+                    RedisGeoCommands.GeoRadiusCommandArgs.newGeoRadiusArgs().sortAscending());
 
             if (results != null && results.getContent() != null && !results.getContent().isEmpty()) {
                 logger.debug("Found {} car parks in Redis cache within {}km", results.getContent().size(), radiusKm);
 
-                List<CarPark> nearbyCarParks = new ArrayList<>();
+                List<String> carParkNos = new ArrayList<>(results.getContent().size());
                 for (var geoResult : results.getContent()) {
-                    String carParkNo = (String) geoResult.getContent().getName();
-
-                    CarPark carPark = carParkMySqlRepository.findByCarParkNoAndDeletedAtIsNull(carParkNo)
-                            .orElse(null);
-                    if (carPark != null && carPark.getAvailableLots() > 0) {
-                        nearbyCarParks.add(carPark);
-                        if (nearbyCarParks.size() >= limit) {
-                            break;
-                        }
-                    }
+                    carParkNos.add((String) geoResult.getContent().getName());
                 }
 
+                List<CarParkSummary> nearbyCarParks = resolveAvailableInOrder(carParkNos, limit);
                 if (!nearbyCarParks.isEmpty()) {
                     logger.debug("Returning {} car parks from Redis cache + database", nearbyCarParks.size());
                     return nearbyCarParks;
@@ -93,8 +98,35 @@ public class RedisGeospatialService {
         }
 
         logger.debug("Falling back to database query for nearby car parks");
-        return carParkMySqlRepository.findNearestCarParksWithPoint(
-                createPoint(latitude, longitude), limit, 0);
+        return geohashNearestSearchService.findNearest(
+                latitude.doubleValue(), longitude.doubleValue(), limit, 0);
+    }
+
+    /**
+     * Resolve car park numbers in distance order, keeping those with available lots
+     */
+    private List<CarParkSummary> resolveAvailableInOrder(List<String> carParkNos, int limit) {
+        int windowSize = Math.max(limit * 2, MIN_LOOKUP_WINDOW);
+        List<CarParkSummary> available = new ArrayList<>(limit);
+
+        for (int from = 0; from < carParkNos.size() && available.size() < limit; from += windowSize) {
+            List<String> window = carParkNos.subList(from, Math.min(from + windowSize, carParkNos.size()));
+            Map<String, CarParkSummary> byCarParkNo = new HashMap<>();
+            for (CarParkSummary summary : carParkMySqlRepository.findSummariesWithAvailabilityByCarParkNoIn(window)) {
+                byCarParkNo.put(summary.getCarParkNo(), summary);
+            }
+
+            for (String carParkNo : window) {
+                CarParkSummary summary = byCarParkNo.get(carParkNo);
+                if (summary != null) {
+                    available.add(summary);
+                    if (available.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return available;
     }
 
     /**
@@ -114,15 +146,4 @@ public class RedisGeospatialService {
             logger.error("Error refreshing location cache", e);
         }
     }
-
-    /**
-     * Create a JTS Point from coordinates
-     */
-    private Point createPoint(BigDecimal latitude, BigDecimal longitude) {
-        org.locationtech.jts.geom.GeometryFactory factory = new org.locationtech.jts.geom.GeometryFactory();
-        Point point = factory.createPoint(new org.locationtech.jts.geom.Coordinate(
-                longitude.doubleValue(), latitude.doubleValue()));
-        point.setSRID(4326);
-        return point;
-    }
 }
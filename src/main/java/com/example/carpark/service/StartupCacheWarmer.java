@@ -0,0 +1,82 @@
+package com.example.carpark.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Warms the location cache and the in-memory snapshot when the application starts.
+ * The readiness probe stays down until warmup has finished or timed out, so cold
+ * nodes do not receive load balancer traffic.
+ */
+@Service
+public class StartupCacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupCacheWarmer.class);
+
+    @Value("${carpark.warmup.timeout:60s}")
+    private Duration warmupTimeout;
+
+    private final RedisGeospatialService redisGeospatialService;
+    private final CarParkSnapshotService carParkSnapshotService;
+    private final AtomicBoolean warmedUp = new AtomicBoolean(false);
+    // Warmup blocks on MySQL and Redis, so it runs on its own threads, not the common fork-join pool.
+    // A warmup that outlives the timeout keeps running here without holding shared threads.
+    private final ExecutorService warmupExecutor = Executors.newFixedThreadPool(
+            2, Thread.ofPlatform().name("cache-warmup-", 0).daemon().factory());
+
+    public StartupCacheWarmer(
+            RedisGeospatialService redisGeospatialService,
+            CarParkSnapshotService carParkSnapshotService) {
+        this.redisGeospatialService = redisGeospatialService;
+        this.carParkSnapshotService = carParkSnapshotService;
+    }
+
+    /**
+     * Map the last snapshot file, then rebuild the location cache and the snapshot
+     * from the database in parallel
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public CompletableFuture<Void> warmUp() {
+        long startedAt = System.nanoTime();
+        logger.info("Starting cache warmup");
+
+        carParkSnapshotService.loadFromFile();
+
+        return CompletableFuture.allOf(
+                        CompletableFuture.runAsync(redisGeospatialService::refreshLocationCache, warmupExecutor),
+                        CompletableFuture.runAsync(carParkSnapshotService::rebuildFromDatabase, warmupExecutor))
+                .orTimeout(warmupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    if (error instanceof TimeoutException) {
+                        logger.warn("Cache warmup did not finish within {}, accepting traffic anyway", warmupTimeout);
+                    } else if (error != null) {
+                        logger.error("Cache warmup failed after {} ms, accepting traffic anyway", elapsedMs, error);
+                    } else {
+                        logger.info("Cache warmup completed in {} ms", elapsedMs);
+                    }
+                    warmedUp.set(true);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmupExecutor.shutdownNow();
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp.get();
+    }
+}
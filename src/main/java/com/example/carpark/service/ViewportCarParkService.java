@@ -0,0 +1,84 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.common.exception.ErrorCode;
+import com.example.carpark.dto.request.ViewportRequestDTO;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds every car park inside a map viewport, whether or not it has lots free.
+ * Served from the snapshot's grid index when a snapshot is loaded, otherwise by an
+ * MBRContains scan on idx_location.
+ */
+@Service
+public class ViewportCarParkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewportCarParkService.class);
+
+    private final CarParkSnapshotService carParkSnapshotService;
+    private final CarParkMySqlRepository carParkMySqlRepository;
+    private final GeometryFactory geometryFactory;
+
+    public ViewportCarParkService(
+            CarParkSnapshotService carParkSnapshotService,
+            CarParkMySqlRepository carParkMySqlRepository,
+            GeometryFactory geometryFactory) {
+        this.carParkSnapshotService = carParkSnapshotService;
+        this.carParkMySqlRepository = carParkMySqlRepository;
+        this.geometryFactory = geometryFactory;
+    }
+
+    /**
+     * Find up to the request limit of car parks inside the viewport.
+     * When the viewport holds more, both the snapshot and the database keep those nearest its centre.
+     */
+    public List<CarParkResponseDTO> findWithin(ViewportRequestDTO request) {
+        if (request.getMinLatitude().compareTo(request.getMaxLatitude()) > 0
+                || request.getMinLongitude().compareTo(request.getMaxLongitude()) > 0) {
+            throw new CarParkException(
+                    CarParkConstants.ERROR_INVALID_VIEWPORT,
+                    ErrorCode.INVALID_COORDINATES.getCode(),
+                    ErrorCode.INVALID_COORDINATES.getHttpStatus());
+        }
+
+        if (carParkSnapshotService.isLoaded()) {
+            return carParkSnapshotService.findWithin(
+                    request.getMinLatitude(),
+                    request.getMinLongitude(),
+                    request.getMaxLatitude(),
+                    request.getMaxLongitude(),
+                    request.getLimit());
+        }
+
+        logger.debug("No snapshot loaded, querying database for viewport");
+        // A zero-width viewport degenerates to a line or point, which MBRContains still accepts
+        Geometry viewport = geometryFactory.toGeometry(new Envelope(
+                request.getMinLongitude().doubleValue(),
+                request.getMaxLongitude().doubleValue(),
+                request.getMinLatitude().doubleValue(),
+                request.getMaxLatitude().doubleValue()));
+        viewport.setSRID(4326);
+        Point centre = geometryFactory.createPoint(viewport.getEnvelopeInternal().centre());
+        centre.setSRID(4326);
+        return carParkMySqlRepository.findSummariesWithinViewport(viewport, centre, request.getLimit())
+                .stream()
+                .map(carPark -> new CarParkResponseDTO(
+                        carPark.getAddress(),
+                        carPark.getLatitude(),
+                        carPark.getLongitude(),
+                        carPark.getTotalLots(),
+                        carPark.getAvailableLots()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,2 @@
+-- Store a fingerprint of the source CSV row so unchanged rows can be skipped on re-import
+ALTER TABLE car_parks ADD COLUMN content_hash CHAR(64) NULL AFTER car_park_basement;
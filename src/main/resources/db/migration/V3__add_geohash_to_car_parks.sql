@@ -0,0 +1,5 @@
+-- Geohash cell key of each car park's location for index-friendly nearest searches
+ALTER TABLE car_parks ADD COLUMN geohash VARCHAR(12) NULL AFTER location;
+
+-- Cell lookups are prefix ranges (geohash LIKE 'w21z7%'), served by an ordinary B-tree index
+CREATE INDEX idx_geohash ON car_parks (geohash);
@@ -0,0 +1,11 @@
+-- Gantry clearance in metres parsed from the free-text gantry_height; NULL when there is no gantry
+ALTER TABLE car_parks ADD COLUMN gantry_height_value DECIMAL(4,2) NULL AFTER gantry_height;
+
+-- Backfill existing rows; zero, blank and non-numeric heights stay NULL, matching the import parser
+UPDATE car_parks
+SET gantry_height_value = CAST(TRIM(TRAILING 'M' FROM UPPER(TRIM(gantry_height))) AS DECIMAL(4,2))
+WHERE TRIM(TRAILING 'M' FROM UPPER(TRIM(gantry_height))) REGEXP '^ *[0-9]{1,2}(\\.[0-9]+)? *$'
+  AND CAST(TRIM(TRAILING 'M' FROM UPPER(TRIM(gantry_height))) AS DECIMAL(4,2)) > 0;
+
+-- Vehicle height filters are range conditions on the clearance
+CREATE INDEX idx_gantry_height_value ON car_parks (gantry_height_value);
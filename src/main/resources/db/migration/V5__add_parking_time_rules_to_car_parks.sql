@@ -0,0 +1,8 @@
+-- Compiled weekly time-window rules of the free-text short_term_parking, free_parking and
+-- night_parking columns: one 6-byte mask of half-hour slots per weekday, Monday first, then a
+-- public holiday mask. The rules are compiled by the importer; rows imported before this
+-- migration are NULL, match no time filter, and are rewritten by the next import.
+ALTER TABLE car_parks
+    ADD COLUMN short_term_parking_rule VARBINARY(48) NULL AFTER night_parking,
+    ADD COLUMN free_parking_rule VARBINARY(48) NULL AFTER short_term_parking_rule,
+    ADD COLUMN night_parking_rule VARBINARY(48) NULL AFTER free_parking_rule;
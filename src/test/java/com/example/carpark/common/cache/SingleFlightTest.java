@@ -0,0 +1,108 @@
+package com.example.carpark.common.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        // Arrange
+        int callers = 16;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // Act
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("1.301:103.854", WAIT, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "loaded";
+            }, () -> "fallback")));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("1.301:103.854", WAIT, () -> {
+                    loads.incrementAndGet();
+                    return "loaded";
+                }, () -> "fallback")));
+            }
+            Thread.sleep(100);
+            releaseLoader.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testWaiterUsesFallbackAfterMaxWait() throws Exception {
+        // Arrange
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", WAIT, () -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "loaded";
+            }, () -> "fallback"));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            // Act
+            String waiter = singleFlight.execute("key", Duration.ofMillis(50), () -> "loaded", () -> "fallback");
+            releaseLoader.countDown();
+
+            // Assert
+            assertEquals("fallback", waiter);
+            assertEquals("loaded", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", WAIT, () -> {
+            throw new IllegalStateException("database down");
+        }, () -> "fallback"));
+        String result = singleFlight.execute("key", WAIT, () -> "loaded", () -> "fallback");
+
+        // Assert
+        assertEquals("loaded", result);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.carpark.common.geo;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedPolylineTest {
+
+    @Test
+    void testDecodeKnownVector() {
+        Coordinate[] coordinates = EncodedPolyline.decode("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+
+        assertEquals(3, coordinates.length);
+        assertEquals(new Coordinate(-120.2, 38.5), coordinates[0]);
+        assertEquals(new Coordinate(-120.95, 40.7), coordinates[1]);
+        assertEquals(new Coordinate(-126.453, 43.252), coordinates[2]);
+    }
+
+    @Test
+    void testDecodeEmptyPolyline() {
+        assertEquals(0, EncodedPolyline.decode("").length);
+    }
+
+    @Test
+    void testRejectsTruncatedPolyline() {
+        assertThrows(IllegalArgumentException.class, () -> EncodedPolyline.decode("_p~iF~ps|"));
+    }
+
+    @Test
+    void testRejectsInvalidCharacter() {
+        assertThrows(IllegalArgumentException.class, () -> EncodedPolyline.decode("_p~iF ps|U"));
+    }
+}
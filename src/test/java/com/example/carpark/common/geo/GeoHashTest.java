@@ -0,0 +1,57 @@
+package com.example.carpark.common.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoHashTest {
+
+    @Test
+    void testEncodeKnownVector() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    void testPrefixIdentifiesEnclosingCell() {
+        String fine = GeoHash.encode(1.30106, 103.85412, 9);
+        String coarse = GeoHash.encode(1.30106, 103.85412, 5);
+
+        assertTrue(fine.startsWith(coarse));
+    }
+
+    @Test
+    void testBoundsContainEncodedPoint() {
+        double[] bounds = GeoHash.bounds(GeoHash.encode(1.30106, 103.85412, 6));
+
+        assertTrue(bounds[0] <= 1.30106 && 1.30106 <= bounds[2]);
+        assertTrue(bounds[1] <= 103.85412 && 103.85412 <= bounds[3]);
+    }
+
+    @Test
+    void testCellWithNeighboursSurroundsCentre() {
+        String cell = GeoHash.encode(1.30106, 103.85412, 6);
+        double[] centre = GeoHash.bounds(cell);
+        double height = centre[2] - centre[0];
+        double width = centre[3] - centre[1];
+
+        String[] block = GeoHash.cellWithNeighbours(cell);
+
+        assertEquals(9, block.length);
+        assertEquals(cell, block[0]);
+        assertEquals(9, Arrays.stream(block).distinct().count());
+        for (String neighbour : block) {
+            double[] bounds = GeoHash.bounds(neighbour);
+            assertEquals(6, neighbour.length());
+            assertTrue(bounds[0] >= centre[0] - height - 1e-9 && bounds[2] <= centre[2] + height + 1e-9);
+            assertTrue(bounds[1] >= centre[1] - width - 1e-9 && bounds[3] <= centre[3] + width + 1e-9);
+        }
+    }
+
+    @Test
+    void testRejectsInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(1.3, 103.8, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(1.3, 103.8, 13));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.carpark.common.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Svy21ProjectionTest {
+
+    // ~1e-6 degrees is roughly 0.1 m
+    private static final double TOLERANCE_DEGREES = 1e-6;
+
+    private final Svy21Projection projection = new Svy21Projection();
+
+    @Test
+    void testOriginMapsToProjectionOrigin() {
+        double[] out = new double[2];
+
+        projection.toWgs84(Svy21Projection.FALSE_EASTING, Svy21Projection.FALSE_NORTHING, out, 0);
+
+        assertEquals(Svy21Projection.ORIGIN_LATITUDE, out[0], TOLERANCE_DEGREES);
+        assertEquals(Svy21Projection.ORIGIN_LONGITUDE, out[1], TOLERANCE_DEGREES);
+    }
+
+    @Test
+    void testKnownCarParkLocation() {
+        // ACB - Albert Centre basement car park
+        double[] out = new double[2];
+
+        projection.toWgs84(30314.7936, 31490.4942, out, 0);
+
+        assertEquals(1.30106, out[0], 1e-4);
+        assertEquals(103.85412, out[1], 1e-4);
+    }
+
+    @Test
+    void testBatchMatchesSingleConversion() {
+        double[] svy21 = { 30314.7936, 31490.4942, 33758.4143, 33695.5198 };
+        double[] batch = new double[4];
+        double[] single = new double[4];
+
+        projection.toWgs84(svy21, batch, 2);
+        projection.toWgs84(svy21[0], svy21[1], single, 0);
+        projection.toWgs84(svy21[2], svy21[3], single, 2);
+
+        assertArrayEquals(single, batch);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.carpark.common.time;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWindowRuleTest {
+
+    private static final int MONDAY = 0;
+    private static final int SATURDAY = 5;
+    private static final int SUNDAY = 6;
+
+    @Test
+    void testSundayAndHolidayWindowIncludesStartAndExcludesEnd() {
+        TimeWindowRule rule = TimeWindowRule.parse("SUN & PH FR 7AM-10.30PM");
+
+        assertFalse(rule.allows(SUNDAY, TimeWindowRule.slotOf(6, 59), false));
+        assertTrue(rule.allows(SUNDAY, TimeWindowRule.slotOf(7, 0), false));
+        assertTrue(rule.allows(SUNDAY, TimeWindowRule.slotOf(22, 29), false));
+        assertFalse(rule.allows(SUNDAY, TimeWindowRule.slotOf(22, 30), false));
+        assertFalse(rule.allows(SATURDAY, TimeWindowRule.slotOf(12, 0), false));
+        assertTrue(rule.allows(MONDAY, TimeWindowRule.slotOf(12, 0), true));
+    }
+
+    @Test
+    void testNightParkingRunsPastMidnightIntoNextDay() {
+        TimeWindowRule rule = TimeWindowRule.parseNightParking("YES");
+
+        assertTrue(rule.allows(SUNDAY, TimeWindowRule.slotOf(23, 0), false));
+        assertTrue(rule.allows(MONDAY, TimeWindowRule.slotOf(6, 30), false));
+        assertFalse(rule.allows(MONDAY, TimeWindowRule.slotOf(7, 0), false));
+        assertFalse(rule.allows(MONDAY, TimeWindowRule.slotOf(12, 0), true));
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parseNightParking("NO"));
+    }
+
+    @Test
+    void testWholeDayAndDayRanges() {
+        TimeWindowRule weekdays = TimeWindowRule.parse("MON-FRI 7AM-7PM");
+
+        assertEquals(TimeWindowRule.ALWAYS, TimeWindowRule.parse("whole day"));
+        assertTrue(weekdays.allows(4, TimeWindowRule.slotOf(18, 30), false));
+        assertFalse(weekdays.allows(SATURDAY, TimeWindowRule.slotOf(18, 30), false));
+    }
+
+    @Test
+    void testBlankAndUnreadableRulesNeverApply() {
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parse(null));
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parse(" "));
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parse("NO"));
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parse("ON REQUEST"));
+        assertEquals(TimeWindowRule.NEVER, TimeWindowRule.parse("XYZ 7AM-7PM"));
+    }
+
+    @Test
+    void testBytesRoundTripWithSqlAddressableLayout() {
+        TimeWindowRule rule = TimeWindowRule.parse("SUN & PH FR 1PM-10.30PM");
+        int slot = TimeWindowRule.slotOf(13, 0);
+
+        byte[] bytes = rule.toBytes();
+
+        assertEquals(TimeWindowRule.ENCODED_LENGTH, bytes.length);
+        assertEquals(rule, TimeWindowRule.fromBytes(bytes));
+        assertNotEquals(0, bytes[TimeWindowRule.encodedByteIndex(SUNDAY, slot)] & TimeWindowRule.encodedBit(slot));
+        assertNotEquals(0,
+                bytes[TimeWindowRule.encodedByteIndex(TimeWindowRule.PUBLIC_HOLIDAY, slot)] & TimeWindowRule.encodedBit(slot));
+        assertEquals(0, bytes[TimeWindowRule.encodedByteIndex(SATURDAY, slot)] & TimeWindowRule.encodedBit(slot));
+    }
+}
@@ -1,10 +1,25 @@
 package com.example.carpark.controller;
 
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.dto.request.CorridorRequestDTO;
 import com.example.carpark.dto.request.NearestCarParkRequestDTO;
+import com.example.carpark.dto.request.ViewportRequestDTO;
+import com.example.carpark.dto.response.CarParkClusterDTO;
 import com.example.carpark.dto.response.CarParkResponseDTO;
 import com.example.carpark.service.CachedCarParkService;
+import com.example.carpark.common.exception.CarParkException;
 import com.example.carpark.service.CarParkAvailabilityService;
+import com.example.carpark.service.CarParkClusterService;
+import com.example.carpark.service.CarParkExportService;
 import com.example.carpark.service.CarParkStreamingImportService;
+import com.example.carpark.service.CorridorSearchService;
+import com.example.carpark.service.ViewportCarParkService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
@@ -14,12 +29,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class CarParkControllerTest {
@@ -33,6 +58,18 @@ class CarParkControllerTest {
     @Mock
     private CarParkStreamingImportService carParkStreamingImportService;
 
+    @Mock
+    private CarParkExportService carParkExportService;
+
+    @Mock
+    private ViewportCarParkService viewportCarParkService;
+
+    @Mock
+    private CarParkClusterService carParkClusterService;
+
+    @Mock
+    private CorridorSearchService corridorSearchService;
+
     @InjectMocks
     private CarParkController carParkController;
 
@@ -67,10 +104,10 @@ class CarParkControllerTest {
     @Test
     void testFindNearestCarParks_Success() {
         // Arrange
-        when(cachedCarParkService.findNearestCarParks(request)).thenReturn(mockCarParks);
+        when(cachedCarParkService.findNearestCarParkPage(request)).thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, null));
 
         // Act
-        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findNearestCarParks(request);
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findNearestCarParks(request, webRequest());
 
         // Assert
         assertNotNull(response);
@@ -80,21 +117,211 @@ class CarParkControllerTest {
         assertEquals("Test Address 1", response.getBody().get(0).getAddress());
         assertEquals("Test Address 2", response.getBody().get(1).getAddress());
 
-        verify(cachedCarParkService).findNearestCarParks(request);
+        verify(cachedCarParkService).findNearestCarParkPage(request);
     }
 
     @Test
     void testFindNearestCarParks_Exception() {
         // Arrange
-        when(cachedCarParkService.findNearestCarParks(request))
+        when(cachedCarParkService.findNearestCarParkPage(request))
                 .thenThrow(new RuntimeException("Service error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
-            carParkController.findNearestCarParks(request);
+            carParkController.findNearestCarParks(request, webRequest());
+        });
+
+        verify(cachedCarParkService).findNearestCarParkPage(request);
+    }
+
+    @Test
+    void testFindNearestCarParks_NotModifiedSkipsQuery() {
+        // Arrange
+        String eTag = "W/\"g7-1.352:103.820:10:0\"";
+        when(cachedCarParkService.nearestETag(request)).thenReturn(eTag);
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest("GET", "/v1/carparks/nearest");
+        httpRequest.addHeader("If-None-Match", eTag);
+
+        // Act
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findNearestCarParks(
+                request,
+                new ServletWebRequest(httpRequest, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(cachedCarParkService, never()).findNearestCarParkPage(any());
+    }
+
+    @Test
+    void testFindNearestCarParks_StaleETagReturnsBody() {
+        // Arrange
+        String eTag = "W/\"g8-1.352:103.820:10:0\"";
+        when(cachedCarParkService.nearestETag(request)).thenReturn(eTag);
+        when(cachedCarParkService.findNearestCarParkPage(request)).thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, null));
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest("GET", "/v1/carparks/nearest");
+        httpRequest.addHeader("If-None-Match", "W/\"g7-1.352:103.820:10:0\"");
+
+        // Act
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findNearestCarParks(
+                request,
+                new ServletWebRequest(httpRequest, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertEquals(List.of("Accept"), response.getHeaders().getVary());
+        assertEquals(mockCarParks, response.getBody());
+    }
+
+    @Test
+    void testFindNearestCarParks_ReturnsCacheGenerationForLaterPages() {
+        // Arrange
+        when(cachedCarParkService.findNearestCarParkPage(request))
+                .thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, 7L));
+
+        // Act
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findNearestCarParks(request, webRequest());
+
+        // Assert
+        assertEquals("7", response.getHeaders().getFirst(CarParkConstants.CACHE_GENERATION_HEADER));
+        assertEquals(mockCarParks, response.getBody());
+    }
+
+    @Test
+    void testFindNearestCarParks_NegotiatesCbor() throws Exception {
+        // Arrange
+        when(cachedCarParkService.findNearestCarParkPage(any())).thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, null));
+
+        // Act
+        MvcResult result = performNearest("application/cbor");
+
+        // Assert
+        assertEquals("application/cbor", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertDecodedCarParks(new CBORMapper().readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void testFindNearestCarParks_NegotiatesSmile() throws Exception {
+        // Arrange
+        when(cachedCarParkService.findNearestCarParkPage(any())).thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, null));
+
+        // Act
+        MvcResult result = performNearest("application/x-jackson-smile");
+
+        // Assert
+        assertEquals("application/x-jackson-smile", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertDecodedCarParks(new SmileMapper().readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void testFindNearestCarParks_DefaultsToJson() throws Exception {
+        // Arrange
+        when(cachedCarParkService.findNearestCarParkPage(any())).thenReturn(new CachedCarParkService.NearestCarParkPage(mockCarParks, null));
+
+        // Act
+        MvcResult result = performNearest("*/*");
+
+        // Assert
+        assertEquals("application/json", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertDecodedCarParks(new ObjectMapper().readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    void testFindCarParksInViewport_Success() {
+        // Arrange
+        ViewportRequestDTO viewport = new ViewportRequestDTO(
+                new BigDecimal("1.35"),
+                new BigDecimal("103.81"),
+                new BigDecimal("1.36"),
+                new BigDecimal("103.82"),
+                200);
+        when(viewportCarParkService.findWithin(viewport)).thenReturn(mockCarParks);
+
+        // Act
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findCarParksInViewport(viewport);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockCarParks, response.getBody());
+        assertEquals(List.of("Accept"), response.getHeaders().getVary());
+    }
+
+    @Test
+    void testFindCarParksAlongRoute_Success() {
+        // Arrange
+        CorridorRequestDTO corridor = new CorridorRequestDTO("_p~iF~ps|U_ulLnnqC", 300, 100);
+        when(corridorSearchService.findAlongRoute(corridor)).thenReturn(mockCarParks);
+
+        // Act
+        ResponseEntity<List<CarParkResponseDTO>> response = carParkController.findCarParksAlongPostedRoute(corridor);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockCarParks, response.getBody());
+    }
+
+    @Test
+    void testFindClusterTile_NotModifiedSkipsLookup() {
+        // Arrange
+        when(carParkClusterService.tilesETag()).thenReturn("W/\"s1\"");
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest("GET", "/v1/carparks/tiles/12/3230/2029");
+        httpRequest.addHeader("If-None-Match", "W/\"s1\"");
+
+        // Act
+        ResponseEntity<List<CarParkClusterDTO>> response = carParkController.findClusterTile(
+                12, 3230, 2029, new ServletWebRequest(httpRequest, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(carParkClusterService, never()).findTile(anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testFindClusterTile_ReturnsClusters() {
+        // Arrange
+        List<CarParkClusterDTO> clusters = List.of(
+                new CarParkClusterDTO(new BigDecimal("1.301060"), new BigDecimal("103.854120"), 3, 42));
+        when(carParkClusterService.tilesETag()).thenReturn("W/\"s1\"");
+        when(carParkClusterService.findTile(12, 3230, 2029)).thenReturn(clusters);
+
+        // Act
+        ResponseEntity<List<CarParkClusterDTO>> response = carParkController.findClusterTile(12, 3230, 2029, webRequest());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(clusters, response.getBody());
+        assertEquals("W/\"s1\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testExportCarParks_StreamsRequestedFormat() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = carParkController.exportCarParks("CSV");
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+        verify(carParkExportService).export(CarParkExportService.Format.CSV, out);
+    }
+
+    @Test
+    void testExportCarParks_UnknownFormat() {
+        // Act & Assert
+        CarParkException exception = assertThrows(CarParkException.class, () -> {
+            carParkController.exportCarParks("xml");
         });
 
-        verify(cachedCarParkService).findNearestCarParks(request);
+        assertEquals(400, exception.getHttpStatus());
+        verifyNoInteractions(carParkExportService);
     }
 
     @Test
@@ -126,6 +353,35 @@ class CarParkControllerTest {
         verify(carParkStreamingImportService).importCarParkDataStreaming();
     }
 
+    @Test
+    void testUploadCarParkData_Success() {
+        // Arrange
+        MockHttpServletRequest uploadRequest = new MockHttpServletRequest();
+        uploadRequest.setContent("car_park_no,address\n".getBytes());
+
+        // Act
+        ResponseEntity<String> response = carParkController.uploadCarParkData(uploadRequest);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        verify(carParkStreamingImportService).importCarParkDataStreaming(any(InputStream.class));
+    }
+
+    @Test
+    void testUploadCarParkData_Exception() {
+        // Arrange
+        MockHttpServletRequest uploadRequest = new MockHttpServletRequest();
+        doThrow(new RuntimeException("Import error")).when(carParkStreamingImportService)
+                .importCarParkDataStreaming(any(InputStream.class));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> {
+            carParkController.uploadCarParkData(uploadRequest);
+        });
+    }
+
     @Test
     void testUpdateCarParkAvailability_Success() {
         // Arrange
@@ -165,4 +421,29 @@ class CarParkControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
+
+    private MvcResult performNearest(String accept) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(carParkController).build();
+        return mockMvc.perform(get("/v1/carparks/nearest")
+                        .param("latitude", "1.3521")
+                        .param("longitude", "103.8198")
+                        .param("page", "1")
+                        .param("perPage", "10")
+                        .header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private void assertDecodedCarParks(JsonNode body) {
+        assertEquals(2, body.size());
+        assertEquals("Test Address 1", body.get(0).get("address").asText());
+        assertEquals(0, new BigDecimal("1.3521").compareTo(body.get(0).get("latitude").decimalValue()));
+        assertEquals(100, body.get(1).get("availableLots").asInt());
+    }
+
+    private ServletWebRequest webRequest() {
+        return new ServletWebRequest(
+                new MockHttpServletRequest("GET", "/v1/carparks/nearest"),
+                new MockHttpServletResponse());
+    }
 }
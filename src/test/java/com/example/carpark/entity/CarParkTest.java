@@ -143,6 +143,36 @@ class CarParkTest {
         assertNotEquals(carPark1.hashCode(), carPark3.hashCode());
     }
 
+    @Test
+    void testGantryHeightIsParsedIntoMetres() {
+        // Arrange
+        CarPark carPark = new CarPark();
+
+        // Act
+        carPark.setGantryHeight(" 1.8 m");
+
+        // Assert
+        assertEquals(new BigDecimal("1.80"), carPark.getGantryHeightValue());
+        assertNull(CarPark.parseGantryHeight("0.00"));
+        assertNull(CarPark.parseGantryHeight(""));
+        assertNull(CarPark.parseGantryHeight("N/A"));
+        assertNull(CarPark.parseGantryHeight("150"));
+    }
+
+    @Test
+    void testGantryHeightParserAcceptsWhatTheBackfillAccepts() {
+        // Arrange & Act & Assert
+        assertEquals(new BigDecimal("2.15"), CarPark.parseGantryHeight("2.15"));
+        assertEquals(new BigDecimal("4.50"), CarPark.parseGantryHeight("4.5M"));
+        assertEquals(new BigDecimal("1.80"), CarPark.parseGantryHeight("1.8 mm"));
+        assertEquals(new BigDecimal("1.81"), CarPark.parseGantryHeight("1.805"));
+        assertNull(CarPark.parseGantryHeight(".5"));
+        assertNull(CarPark.parseGantryHeight("+1.8"));
+        assertNull(CarPark.parseGantryHeight("-1.8"));
+        assertNull(CarPark.parseGantryHeight("2."));
+        assertNull(CarPark.parseGantryHeight("1e1"));
+    }
+
     @Test
     void testToString() {
         carPark.setCarParkNo("A1");
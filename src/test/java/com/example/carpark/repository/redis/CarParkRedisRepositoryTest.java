@@ -0,0 +1,129 @@
+package com.example.carpark.repository.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarParkRedisRepositoryTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> generationOperations;
+
+    @Mock
+    private ObjectProvider<RedisNearCache> redisNearCache;
+
+    @Mock
+    private RedisNearCache nearCache;
+
+    private CarParkRedisRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CarParkRedisRepository(redisTemplate, stringRedisTemplate, new ObjectMapper(), redisNearCache);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidateCarParkUnlinksOnlyTaggedEntries() {
+        // Arrange
+        when(stringRedisTemplate.opsForValue()).thenReturn(generationOperations);
+        when(generationOperations.get("carpark:generation")).thenReturn("4");
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members("carpark:g4:tag:carpark:ACB"))
+                .thenReturn(Set.of("carpark:g4:nearest:1.301:103.854:1"));
+
+        // Act
+        repository.invalidateCarParkCache("ACB");
+
+        // Assert
+        ArgumentCaptor<Collection<String>> unlinked = ArgumentCaptor.forClass(Collection.class);
+        verify(redisTemplate).unlink(unlinked.capture());
+        assertEquals(
+                Set.of("carpark:g4:detail:ACB", "carpark:g4:tag:carpark:ACB", "carpark:g4:nearest:1.301:103.854:1"),
+                Set.copyOf(unlinked.getValue()));
+        verify(setOperations).remove("carpark:g4:tag:nearest", "carpark:g4:nearest:1.301:103.854:1");
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void testCacheStatsUsesScan() {
+        // Arrange
+        Iterator<String> keys = List.of(
+                "carpark:g1:nearest:a", "carpark:g1:nearest:b", "carpark:g1:detail:ACB", "carpark:locations").iterator();
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenAnswer(invocation -> keys.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> keys.next());
+
+        // Act
+        CarParkRedisRepository.CacheStats stats = repository.getCacheStats();
+
+        // Assert
+        assertEquals(4, stats.getTotalKeys());
+        assertEquals(2, stats.getNearestKeys());
+        assertEquals(1, stats.getDetailKeys());
+        verify(cursor).close();
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    void testInvalidateAllCachesIsSingleIncrement() {
+        // Arrange
+        when(stringRedisTemplate.opsForValue()).thenReturn(generationOperations);
+        when(generationOperations.increment("carpark:generation")).thenReturn(5L);
+
+        // Act
+        repository.invalidateAllCaches();
+
+        // Assert
+        verify(generationOperations).increment("carpark:generation");
+        verify(redisTemplate, never()).unlink(anyCollection());
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    void testReadsGenerationThroughActiveNearCache() {
+        // Arrange
+        when(redisNearCache.getIfAvailable()).thenReturn(nearCache);
+        when(nearCache.isActive()).thenReturn(true);
+        when(nearCache.getString("carpark:generation")).thenReturn("9");
+
+        // Act
+        long generation = repository.currentGeneration();
+
+        // Assert
+        assertEquals(9L, generation);
+        verifyNoInteractions(stringRedisTemplate);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.carpark.repository.redis;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.entity.CarParkAvailability;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCarParkRedisSerializerTest {
+
+    private final CompactCarParkRedisSerializer serializer = new CompactCarParkRedisSerializer();
+
+    @Test
+    void testRoundTripsResponseListSmallerThanJson() {
+        // Arrange
+        List<CarParkResponseDTO> responses = List.of(
+            new CarParkResponseDTO("BLK 270/271 ALBERT CENTRE", new BigDecimal("1.30106000"),
+                new BigDecimal("103.85412000"), 583, 120),
+            new CarParkResponseDTO(null, null, null, null, null)
+        );
+
+        // Act
+        byte[] bytes = serializer.serialize(responses);
+        Object decoded = serializer.deserialize(bytes);
+
+        // Assert
+        assertEquals(CompactCarParkRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(CompactCarParkRedisSerializer.VERSION, bytes[1]);
+        assertEquals(responses, decoded);
+        assertTrue(bytes.length < new GenericJackson2JsonRedisSerializer().serialize(responses).length / 2);
+    }
+
+    @Test
+    void testRoundTripsAvailabilityRecords() {
+        // Arrange
+        List<CarParkAvailability> records = List.of(new CarParkAvailability("ACB", 583, 120, "C"));
+
+        // Act
+        @SuppressWarnings("unchecked")
+        List<CarParkAvailability> decoded = (List<CarParkAvailability>) serializer.deserialize(
+            serializer.serialize(records)
+        );
+
+        // Assert
+        assertEquals(1, decoded.size());
+        assertEquals("ACB", decoded.get(0).getCarparkNumber());
+        assertEquals(583, decoded.get(0).getTotalLots());
+        assertEquals(120, decoded.get(0).getAvailableLots());
+        assertEquals("C", decoded.get(0).getLotType());
+    }
+
+    @Test
+    void testRoundTripsNearestResultWithSoftExpiry() {
+        // Arrange
+        CachedNearestResult result = new CachedNearestResult(1_700_000_000_000L, List.of(
+            new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        ));
+
+        // Act
+        CachedNearestResult decoded = (CachedNearestResult) serializer.deserialize(serializer.serialize(result));
+
+        // Assert
+        assertEquals(1_700_000_000_000L, decoded.getSoftExpiresAt());
+        assertEquals(result.getCarParks(), decoded.getCarParks());
+    }
+
+    @Test
+    void testReadsEntriesWrittenAsJson() {
+        // Arrange
+        CarParkResponseDTO response = new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"),
+            new BigDecimal("103.8"), 10, 5);
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(response);
+
+        // Act
+        Object decoded = serializer.deserialize(json);
+
+        // Assert
+        assertEquals(response, decoded);
+    }
+
+    @Test
+    void testFallsBackToJsonForOtherValues() {
+        // Act
+        byte[] bytes = serializer.serialize("ACB");
+
+        // Assert
+        assertEquals('"', bytes[0]);
+        assertEquals("ACB", serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testFallsBackToJsonForStringsTooLongForCompactLayout() {
+        // Arrange
+        CarParkResponseDTO response = new CarParkResponseDTO(
+                "BLK ".repeat(20000), new BigDecimal("1.30106000"), new BigDecimal("103.85412000"), 583, 120);
+
+        // Act
+        byte[] bytes = serializer.serialize(response);
+
+        // Assert
+        assertEquals('{', bytes[0]);
+        assertEquals(response, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testRejectsUnknownFormatVersion() {
+        // Arrange
+        byte[] bytes = serializer.serialize(new CarParkResponseDTO("BLK 1", null, null, 1, 1));
+        bytes[1] = (byte) (CompactCarParkRedisSerializer.VERSION + 1);
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> serializer.deserialize(bytes));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.entity.CarPark;
+import java.math.BigDecimal;
+
+/**
+ * Car parks for snapshot tests and the services that search a snapshot
+ */
+public final class CarParkFixtures {
+
+    private CarParkFixtures() {
+    }
+
+    /**
+     * Car park at "BLK {carParkNo}" with 100 lots
+     */
+    public static CarPark carPark(String carParkNo, String latitude, String longitude, int availableLots) {
+        return carPark(carParkNo, "BLK " + carParkNo, latitude, longitude, 100, availableLots);
+    }
+
+    public static CarPark carPark(String carParkNo, String address, String latitude, String longitude,
+            int totalLots, int availableLots) {
+        CarPark carPark = new CarPark(carParkNo, address, new BigDecimal(latitude), new BigDecimal(longitude));
+        carPark.setTotalLots(totalLots);
+        carPark.setAvailableLots(availableLots);
+        return carPark;
+    }
+}
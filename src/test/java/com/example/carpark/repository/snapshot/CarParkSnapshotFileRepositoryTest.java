@@ -0,0 +1,93 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.entity.CarPark;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarParkSnapshotFileRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotFile;
+    private CarParkSnapshotFileRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        snapshotFile = tempDir.resolve("snapshots/carpark-snapshot.bin");
+        repository = new CarParkSnapshotFileRepository();
+        ReflectionTestUtils.setField(repository, "snapshotPath", snapshotFile.toString());
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+        // Arrange
+        CarPark albert = carPark("ACB", "BLK 270/271 ALBERT CENTRE", "1.30106", "103.85412", 20, 10);
+        albert.setCarParkType("BASEMENT CAR PARK");
+        albert.setFreeParking("NO");
+        CarPark bukit = carPark("BM29", "BLK 29 BUKIT MERAH", "1.28412", "103.82401", 20, 0);
+        bukit.setCarParkType("BASEMENT CAR PARK");
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(albert, bukit), 1234L);
+
+        // Act
+        repository.save(snapshot);
+        Optional<CarParkSnapshot> loaded = repository.load();
+
+        // Assert
+        assertTrue(loaded.isPresent());
+        CarParkSnapshot result = loaded.get();
+        assertEquals(2, result.size());
+        assertEquals(1234L, result.getCreatedAtMillis());
+        assertEquals("BM29", result.getCarParkNo(1));
+        assertEquals("BLK 270/271 ALBERT CENTRE", result.getAddress(0));
+        assertEquals(1.30106, result.getLatitude(0));
+        assertEquals(103.82401, result.getLongitude(1));
+        assertEquals(10, result.getAvailableLots(0));
+        assertEquals("BASEMENT CAR PARK", result.getAttribute(1, CarParkSnapshot.Attribute.CAR_PARK_TYPE));
+        assertEquals("NO", result.getAttribute(0, CarParkSnapshot.Attribute.FREE_PARKING));
+        assertNull(result.getAttribute(1, CarParkSnapshot.Attribute.FREE_PARKING));
+    }
+
+    @Test
+    void testLoadReturnsEmptyWhenFileMissing() throws IOException {
+        assertTrue(repository.load().isEmpty());
+    }
+
+    @Test
+    void testLoadRejectsForeignFile() throws IOException {
+        // Arrange
+        Files.createDirectories(snapshotFile.getParent());
+        Files.writeString(snapshotFile, "car_park_no,address");
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> repository.load());
+    }
+
+    @Test
+    void testFindNearestOrdersByDistanceAndSkipsFullCarParks() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(
+                carPark("FAR", "FAR", "1.31000", "103.85412", 20, 5),
+                carPark("FULL", "FULL", "1.30107", "103.85412", 20, 0),
+                carPark("NEAR", "NEAR", "1.30200", "103.85412", 20, 5),
+                carPark("NEXT", "NEXT", "1.30500", "103.85412", 20, 5)), 0L);
+
+        // Act
+        int[] firstPage = snapshot.findNearest(1.30106, 103.85412, 2, 0);
+        int[] secondPage = snapshot.findNearest(1.30106, 103.85412, 2, 2);
+
+        // Assert
+        assertArrayEquals(new int[] { 2, 3 }, firstPage);
+        assertArrayEquals(new int[] { 0 }, secondPage);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.entity.CarPark;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarParkSnapshotTest {
+
+    @Test
+    void testFindWithinReturnsRowsInsideBoxIncludingFull() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(
+                carPark("IN1", "1.300", "103.800", 10),
+                carPark("FULL", "1.305", "103.805", 0),
+                carPark("EDGE", "1.310", "103.810", 5),
+                carPark("OUT", "1.400", "103.900", 5)), 1L);
+
+        // Act
+        int[] rows = snapshot.findWithin(1.300, 103.800, 1.310, 103.810, 10);
+
+        // Assert
+        Arrays.sort(rows);
+        assertArrayEquals(new int[] { 0, 1, 2 }, rows);
+    }
+
+    @Test
+    void testFindWithinKeepsRowsNearestCentreWhenOverLimit() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(
+                carPark("FAR", "1.300", "103.800", 1),
+                carPark("CENTRE", "1.350", "103.850", 1),
+                carPark("NEAR", "1.360", "103.850", 1)), 1L);
+
+        // Act
+        int[] rows = snapshot.findWithin(1.300, 103.800, 1.400, 103.900, 2);
+
+        // Assert
+        assertArrayEquals(new int[] { 1, 2 }, rows);
+    }
+
+    @Test
+    void testFindWithinListsNearestCentreFirstFromManyMatches() {
+        // Arrange
+        List<CarPark> carParks = new ArrayList<>();
+        for (int step = 1; step <= 40; step++) {
+            // Alternate sides of the centre so input order is not distance order
+            int offset = step % 2 == 0 ? step : -step;
+            carParks.add(carPark("D" + step, BigDecimal.valueOf(1.35 + offset * 0.001).toPlainString(), "103.85", 1));
+        }
+        Collections.shuffle(carParks, new Random(42));
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(carParks, 1L);
+
+        // Act
+        int[] rows = snapshot.findWithin(1.30, 103.80, 1.40, 103.90, 5);
+
+        // Assert
+        String[] carParkNos = Arrays.stream(rows).mapToObj(snapshot::getCarParkNo).toArray(String[]::new);
+        assertArrayEquals(new String[] { "D1", "D2", "D3", "D4", "D5" }, carParkNos);
+    }
+
+    @Test
+    void testFindWithinOutsideDataReturnsEmpty() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(
+                carPark("ACB", "1.30106", "103.85412", 1)), 1L);
+
+        // Act
+        int[] rows = snapshot.findWithin(40.0, -74.1, 40.9, -73.7, 10);
+
+        // Assert
+        assertEquals(0, rows.length);
+    }
+
+    @Test
+    void testFindNearestVisitsOnlyRowsMatchingEveryFilter() {
+        // Arrange
+        CarPark nearestSurface = carPark("S1", "1.3000", "103.8000", 5);
+        nearestSurface.setCarParkType("SURFACE CAR PARK");
+        nearestSurface.setNightParking("YES");
+        CarPark basementNoNight = carPark("B1", "1.3001", "103.8001", 5);
+        basementNoNight.setCarParkType("BASEMENT CAR PARK");
+        basementNoNight.setNightParking("NO");
+        CarPark basementNight = carPark("B2", "1.3100", "103.8100", 5);
+        basementNight.setCarParkType("BASEMENT CAR PARK");
+        basementNight.setNightParking("YES");
+        CarPark multiStoreyNight = carPark("M1", "1.3200", "103.8200", 5);
+        multiStoreyNight.setCarParkType("MULTI-STOREY CAR PARK");
+        multiStoreyNight.setNightParking("YES");
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(
+                List.of(nearestSurface, basementNoNight, basementNight, multiStoreyNight), 1L);
+        Map<CarParkSnapshot.Attribute, List<String>> filters = new EnumMap<>(CarParkSnapshot.Attribute.class);
+        filters.put(CarParkSnapshot.Attribute.CAR_PARK_TYPE, List.of("basement car park", "MULTI-STOREY CAR PARK"));
+        filters.put(CarParkSnapshot.Attribute.NIGHT_PARKING, List.of("YES"));
+
+        // Act
+        int[] rows = snapshot.findNearest(1.3, 103.8, 10, 0, snapshot.rowsMatching(filters));
+
+        // Assert
+        assertArrayEquals(new int[] { 2, 3 }, rows);
+    }
+
+    @Test
+    void testRowsMatchingUnknownValueIsEmpty() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(carPark("S1", "1.3", "103.8", 5)), 1L);
+
+        // Act
+        BitSet rows = snapshot.rowsMatching(Map.of(CarParkSnapshot.Attribute.FREE_PARKING, List.of("NO")));
+
+        // Assert
+        assertTrue(rows.isEmpty());
+        assertNull(snapshot.rowsMatching(Map.of()));
+    }
+
+    @Test
+    void testRowsClearingKeepsNoGantryAndHighEnoughGantries() {
+        // Arrange
+        CarPark low = carPark("LOW", "1.3000", "103.8000", 5);
+        low.setGantryHeight("1.80");
+        CarPark exact = carPark("EXACT", "1.3001", "103.8001", 5);
+        exact.setGantryHeight("2.1");
+        CarPark surface = carPark("SURFACE", "1.3002", "103.8002", 5);
+        surface.setGantryHeight("0.00");
+        CarPark high = carPark("HIGH", "1.3003", "103.8003", 5);
+        high.setGantryHeight("4.50");
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(low, exact, surface, high), 1L);
+
+        // Act
+        int[] vanRows = snapshot.findNearest(1.3, 103.8, 10, 0, snapshot.rowsClearing(2.1));
+        BitSet truckRows = snapshot.rowsClearing(5.0);
+
+        // Assert
+        assertArrayEquals(new int[] { 1, 2, 3 }, vanRows);
+        assertEquals(BitSet.valueOf(new long[] { 0b0100 }), truckRows);
+    }
+
+    @Test
+    void testRowsAllowingEvaluatesParkingRulesAtTime() {
+        // Arrange
+        CarPark sundayFree = carPark("FREE", "1.3000", "103.8000", 5);
+        sundayFree.setShortTermParking("WHOLE DAY");
+        sundayFree.setFreeParking("SUN & PH FR 7AM-10.30PM");
+        sundayFree.setNightParking("YES");
+        CarPark daytime = carPark("DAY", "1.3001", "103.8001", 5);
+        daytime.setShortTermParking("7AM-7PM");
+        daytime.setFreeParking("NO");
+        daytime.setNightParking("YES");
+        CarPark closedAtNight = carPark("SEASON", "1.3002", "103.8002", 5);
+        closedAtNight.setShortTermParking("7AM-10.30PM");
+        closedAtNight.setFreeParking("NO");
+        closedAtNight.setNightParking("NO");
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(sundayFree, daytime, closedAtNight), 1L);
+
+        // Act
+        BitSet freeSundayMorning = snapshot.rowsAllowing(
+                ParkingTimeFilter.of(LocalDateTime.of(2026, 10, 18, 9, 0), false, true));
+        BitSet freeHolidayMonday = snapshot.rowsAllowing(
+                ParkingTimeFilter.of(LocalDateTime.of(2026, 10, 19, 9, 0), true, true));
+        BitSet openLateEvening = snapshot.rowsAllowing(
+                ParkingTimeFilter.of(LocalDateTime.of(2026, 10, 19, 23, 0), false, false));
+        BitSet openEvening = snapshot.rowsAllowing(
+                ParkingTimeFilter.of(LocalDateTime.of(2026, 10, 19, 20, 0), false, false));
+
+        // Assert
+        assertEquals(BitSet.valueOf(new long[] { 0b001 }), freeSundayMorning);
+        assertEquals(BitSet.valueOf(new long[] { 0b001 }), freeHolidayMonday);
+        assertEquals(BitSet.valueOf(new long[] { 0b011 }), openLateEvening);
+        assertEquals(BitSet.valueOf(new long[] { 0b101 }), openEvening);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.carpark.repository.snapshot;
+
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.entity.CarPark;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCarParkListTest {
+
+    @Test
+    void testWriteJsonMatchesJacksonOutput() throws IOException {
+        // Arrange
+        CarPark albert = carPark("ACB", "BLK 270/271 \"ALBERT\" CENTRE", "1.30106", "103.85412", 583, 120);
+        CarPark bukit = carPark("BM29", "BLK 29 BUKIT MERAH é中", "1.28412", "103.82401", 200, 7);
+        CarPark unnamed = carPark("U1", null, "1.3", "103.8", 0, 3);
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(albert, bukit, unnamed), 1L);
+        SnapshotCarParkList carParks = new SnapshotCarParkList(snapshot, new int[] { 1, 0, 2 });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        carParks.writeJson(out);
+
+        // Assert
+        String expected = new ObjectMapper().writeValueAsString(new ArrayList<>(carParks));
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testElementsMatchSnapshotRows() {
+        // Arrange
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(
+                List.of(carPark("ACB", "BLK 270/271 ALBERT CENTRE", "1.30106", "103.85412", 583, 120)), 1L);
+
+        // Act
+        SnapshotCarParkList carParks = new SnapshotCarParkList(snapshot, new int[] { 0 });
+
+        // Assert
+        assertEquals(List.of(new CarParkResponseDTO(
+                "BLK 270/271 ALBERT CENTRE",
+                new BigDecimal("1.30106000"),
+                new BigDecimal("103.85412000"),
+                583,
+                120)), carParks);
+    }
+}
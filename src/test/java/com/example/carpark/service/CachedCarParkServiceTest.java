@@ -1,34 +1,63 @@
 package com.example.carpark.service;
 
-import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.common.time.ParkingTimeFilter;
+import com.example.carpark.common.time.PublicHolidayCalendar;
+import com.example.carpark.dto.request.NearestCarParkRequestDTO;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.redis.CachedNearestResult;
+import com.example.carpark.repository.redis.CarParkRedisRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
 import com.example.carpark.service.RedisGeospatialService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.locationtech.jts.geom.GeometryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CachedCarParkServiceTest {
 
     @Mock
-    private CarParkMySqlRepository carParkMySqlRepository;
+    private GeohashNearestSearchService geohashNearestSearchService;
 
     @Mock
-    private GeometryFactory geometryFactory;
+    private RedisGeospatialService redisGeospatialService;
 
     @Mock
-    private RedisGeospatialService redisGeospatialService;
+    private CarParkSnapshotService carParkSnapshotService;
+
+    @Mock
+    private ObjectProvider<CarParkRedisRepository> carParkRedisRepository;
+
+    @Mock
+    private CarParkRedisRepository resultCache;
+
+    @Mock
+    private PublicHolidayCalendar publicHolidayCalendar;
 
     @Test
     void testServiceInitialization() {
         // Arrange & Act
         CachedCarParkService service = new CachedCarParkService(
-            carParkMySqlRepository,
-            geometryFactory,
-            redisGeospatialService
+            geohashNearestSearchService,
+            redisGeospatialService,
+            carParkSnapshotService,
+            carParkRedisRepository,
+            publicHolidayCalendar
         );
 
         // Assert
@@ -39,9 +68,11 @@ class CachedCarParkServiceTest {
     void testConstructorInjection() {
         // Arrange & Act
         CachedCarParkService service = new CachedCarParkService(
-            carParkMySqlRepository,
-            geometryFactory,
-            redisGeospatialService
+            geohashNearestSearchService,
+            redisGeospatialService,
+            carParkSnapshotService,
+            carParkRedisRepository,
+            publicHolidayCalendar
         );
 
         // Assert
@@ -51,4 +82,256 @@ class CachedCarParkServiceTest {
             // Test that the service can be instantiated
         });
     }
+
+    @Test
+    void testServesRedisResultCacheForPinnedGeneration() {
+        // Arrange
+        CachedCarParkService service = createService();
+        List<CarParkResponseDTO> cached = List.of(
+            new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        );
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(7L);
+        when(resultCache.getCachedNearestCarParks(7L, "1.301:103.854:10:0")).thenReturn(Optional.of(new CachedNearestResult(Long.MAX_VALUE, cached)));
+
+        // Act
+        List<CarParkResponseDTO> result = service.findNearestCarParks(request("1.30106", "103.85412", 1, 10));
+
+        // Assert
+        assertSame(cached, result);
+        verifyNoInteractions(redisGeospatialService, geohashNearestSearchService);
+    }
+
+    @Test
+    void testCachesMissUnderTheGenerationItWasReadWith() {
+        // Arrange
+        CachedCarParkService service = createService();
+        CarParkSummary summary = new SpelAwareProxyProjectionFactory().createProjection(CarParkSummary.class, Map.of(
+            "carParkNo", "ACB",
+            "address", "BLK 270",
+            "latitude", new BigDecimal("1.30106"),
+            "longitude", new BigDecimal("103.85412"),
+            "totalLots", 10,
+            "availableLots", 5
+        ));
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(3L);
+        when(resultCache.getCachedNearestCarParks(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(geohashNearestSearchService.findNearest(1.30106, 103.85412, 10, 10)).thenReturn(List.of(summary));
+
+        // Act
+        List<CarParkResponseDTO> result = service.findNearestCarParks(request("1.30106", "103.85412", 2, 10));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("BLK 270", result.get(0).getAddress());
+        verify(resultCache).cacheNearestCarParks(eq(3L), eq("1.301:103.854:10:10"), eq(result), eq(List.of("ACB")));
+        // The Redis geo index cannot page, so later pages skip it
+        verifyNoInteractions(redisGeospatialService);
+    }
+
+    @Test
+    void testLaterPageIsReadFromGenerationOfFirstPage() {
+        // Arrange
+        CachedCarParkService service = createService();
+        List<CarParkResponseDTO> pageTwo = List.of(
+            new CarParkResponseDTO("BLK 2", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        );
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        // An availability run moved the cache to generation 8 after page 1 was served from 7
+        when(resultCache.currentGeneration()).thenReturn(8L);
+        when(resultCache.getCachedNearestCarParks(7L, "1.301:103.854:10:10"))
+            .thenReturn(Optional.of(new CachedNearestResult(0L, pageTwo)));
+        NearestCarParkRequestDTO request = request("1.30106", "103.85412", 2, 10);
+        request.setGeneration(7L);
+
+        // Act
+        CachedCarParkService.NearestCarParkPage page = service.findNearestCarParkPage(request);
+
+        // Assert
+        assertSame(pageTwo, page.getCarParks());
+        assertEquals(7L, page.getGeneration());
+        verify(resultCache, never()).getCachedNearestCarParks(eq(8L), anyString());
+        verify(resultCache, never()).cacheNearestCarParks(anyLong(), anyString(), any(), any());
+        verifyNoInteractions(geohashNearestSearchService);
+    }
+
+    @Test
+    void testExpiredRequestedGenerationFallsBackToCurrentGeneration() {
+        // Arrange
+        CachedCarParkService service = createService();
+        List<CarParkResponseDTO> current = List.of(
+            new CarParkResponseDTO("BLK 2", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 4)
+        );
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(8L);
+        when(resultCache.getCachedNearestCarParks(2L, "1.301:103.854:10:10")).thenReturn(Optional.empty());
+        when(resultCache.getCachedNearestCarParks(8L, "1.301:103.854:10:10"))
+            .thenReturn(Optional.of(new CachedNearestResult(Long.MAX_VALUE, current)));
+        NearestCarParkRequestDTO request = request("1.30106", "103.85412", 2, 10);
+        request.setGeneration(2L);
+
+        // Act
+        CachedCarParkService.NearestCarParkPage page = service.findNearestCarParkPage(request);
+
+        // Assert
+        assertSame(current, page.getCarParks());
+        // The client learns that its session has moved to the new generation
+        assertEquals(8L, page.getGeneration());
+    }
+
+    @Test
+    void testServesStaleEntryAndRefreshesInBackground() {
+        // Arrange
+        CachedCarParkService service = createService();
+        List<CarParkResponseDTO> stale = List.of(
+            new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        );
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(7L);
+        when(resultCache.getCachedNearestCarParks(7L, "1.301:103.854:10:0"))
+            .thenReturn(Optional.of(new CachedNearestResult(0L, stale)));
+        when(redisGeospatialService.findNearbyCarParks(any(), any(), anyInt(), eq(10))).thenReturn(List.of());
+        when(geohashNearestSearchService.findNearest(1.30106, 103.85412, 10, 0)).thenReturn(List.of());
+
+        // Act
+        List<CarParkResponseDTO> result = service.findNearestCarParks(request("1.30106", "103.85412", 1, 10));
+
+        // Assert
+        assertSame(stale, result);
+        verify(resultCache, timeout(5000)).cacheNearestCarParks(eq(7L), eq("1.301:103.854:10:0"), eq(List.of()), eq(List.of()));
+    }
+
+    @Test
+    void testServesPreviousGenerationAfterBumpAndRefreshesCurrentGeneration() {
+        // Arrange
+        CachedCarParkService service = createService();
+        List<CarParkResponseDTO> previous = List.of(
+            new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        );
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        // An availability run has just moved the cache from generation 7 to 8
+        when(resultCache.currentGeneration()).thenReturn(8L);
+        when(resultCache.getCachedNearestCarParks(8L, "1.301:103.854:10:0")).thenReturn(Optional.empty());
+        when(resultCache.getCachedNearestCarParks(7L, "1.301:103.854:10:0"))
+            .thenReturn(Optional.of(new CachedNearestResult(Long.MAX_VALUE, previous)));
+        when(redisGeospatialService.findNearbyCarParks(any(), any(), anyInt(), eq(10))).thenReturn(List.of());
+        when(geohashNearestSearchService.findNearest(1.30106, 103.85412, 10, 0)).thenReturn(List.of());
+
+        // Act
+        CachedCarParkService.NearestCarParkPage page = service.findNearestCarParkPage(request("1.30106", "103.85412", 1, 10));
+
+        // Assert
+        assertSame(previous, page.getCarParks());
+        assertEquals(7L, page.getGeneration());
+        verify(resultCache, timeout(5000)).cacheNearestCarParks(eq(8L), eq("1.301:103.854:10:0"), eq(List.of()), eq(List.of()));
+        verify(resultCache, never()).cacheNearestCarParks(eq(7L), anyString(), any(), any());
+        service.shutdown();
+    }
+
+    @Test
+    void testBackgroundRefreshRunsOnBoundedRefreshPool() {
+        // Arrange
+        CachedCarParkService service = createService();
+        AtomicReference<String> refreshThread = new AtomicReference<>();
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(7L);
+        when(resultCache.getCachedNearestCarParks(7L, "1.301:103.854:10:0"))
+            .thenReturn(Optional.of(new CachedNearestResult(0L, List.of())));
+        when(redisGeospatialService.findNearbyCarParks(any(), any(), anyInt(), eq(10))).thenReturn(List.of());
+        when(geohashNearestSearchService.findNearest(1.30106, 103.85412, 10, 0)).thenAnswer(invocation -> {
+            refreshThread.set(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        // Act
+        service.findNearestCarParks(request("1.30106", "103.85412", 1, 10));
+
+        // Assert
+        verify(resultCache, timeout(5000)).cacheNearestCarParks(eq(7L), eq("1.301:103.854:10:0"), eq(List.of()), eq(List.of()));
+        assertTrue(refreshThread.get().startsWith("nearest-refresh-"));
+        service.shutdown();
+    }
+
+    @Test
+    void testNearestETagCombinesSnapshotVersionGenerationAndQuantizedPage() {
+        // Arrange
+        CachedCarParkService service = createService();
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.getSnapshot()).thenReturn(CarParkSnapshot.fromCarParks(List.of(), 255L));
+        when(carParkRedisRepository.getIfAvailable()).thenReturn(resultCache);
+        when(resultCache.currentGeneration()).thenReturn(7L);
+
+        // Act
+        String eTag = service.nearestETag(request("1.30106", "103.85412", 2, 10));
+
+        // Assert
+        assertEquals("W/\"sffg7-1.301:103.854:10:10\"", eTag);
+    }
+
+    @Test
+    void testAttributeFiltersAreAnsweredFromSnapshotBitsets() {
+        // Arrange
+        CachedCarParkService service = createService();
+        NearestCarParkRequestDTO request = request("1.3", "103.8", 1, 10);
+        request.setCarParkType(List.of(" BASEMENT CAR PARK ", ""));
+        request.setNightParking(List.of());
+        List<CarParkResponseDTO> expected = List.of(
+            new CarParkResponseDTO("BLK 1", new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 5)
+        );
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.findNearest(
+                new BigDecimal("1.3"), new BigDecimal("103.8"), 10, 0,
+                Map.of(CarParkSnapshot.Attribute.CAR_PARK_TYPE, List.of("BASEMENT CAR PARK")), null, null))
+            .thenReturn(expected);
+
+        // Act
+        List<CarParkResponseDTO> result = service.findNearestCarParks(request);
+
+        // Assert
+        assertEquals(expected, result);
+        verifyNoInteractions(redisGeospatialService, geohashNearestSearchService, carParkRedisRepository);
+    }
+
+    @Test
+    void testParkingTimeIsResolvedInCarParkTimeZoneWithHolidayCalendar() {
+        // Arrange
+        CachedCarParkService service = createService();
+        NearestCarParkRequestDTO request = request("1.3", "103.8", 1, 10);
+        // Friday 23:15 UTC is Saturday 07:15 in Singapore
+        request.setAt(OffsetDateTime.parse("2026-05-01T23:15:00Z"));
+        request.setFree(true);
+        when(publicHolidayCalendar.isPublicHoliday(LocalDate.of(2026, 5, 2))).thenReturn(true);
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.findNearest(any(), any(), eq(10), eq(0), eq(Map.of()), isNull(), any()))
+            .thenReturn(List.of());
+        ArgumentCaptor<ParkingTimeFilter> parkingTime = ArgumentCaptor.forClass(ParkingTimeFilter.class);
+
+        // Act
+        service.findNearestCarParks(request);
+
+        // Assert
+        verify(carParkSnapshotService).findNearest(any(), any(), eq(10), eq(0), eq(Map.of()), isNull(), parkingTime.capture());
+        assertEquals("5.14hf", parkingTime.getValue().toKey());
+        verifyNoInteractions(redisGeospatialService, geohashNearestSearchService, carParkRedisRepository);
+    }
+
+    private CachedCarParkService createService() {
+        return new CachedCarParkService(
+            geohashNearestSearchService,
+            redisGeospatialService,
+            carParkSnapshotService,
+            carParkRedisRepository,
+            publicHolidayCalendar
+        );
+    }
+
+    private NearestCarParkRequestDTO request(String latitude, String longitude, int page, int perPage) {
+        NearestCarParkRequestDTO request = new NearestCarParkRequestDTO();
+        request.setLatitude(new BigDecimal(latitude));
+        request.setLongitude(new BigDecimal(longitude));
+        request.setPage(page);
+        request.setPerPage(perPage);
+        return request;
+    }
 }
@@ -1,15 +1,26 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.entity.CarPark;
+import com.example.carpark.entity.CarParkAvailability;
 import com.example.carpark.repository.external.CarParkExternalApiRepository;
 import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
 import com.example.carpark.service.RedisGeospatialService;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.Query;
 
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +37,9 @@ class CarParkAvailabilityServiceTest {
     @Mock
     private RedisGeospatialService redisGeospatialService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CarParkAvailabilityService carParkAvailabilityService;
 
@@ -39,6 +53,8 @@ class CarParkAvailabilityServiceTest {
 
         // Assert
         verify(carParkExternalApiRepository).fetchCarParkAvailabilityStreaming(any());
+        verify(carParkMySqlRepository).evictSecondLevelCache();
+        verify(eventPublisher).publishEvent(any(CarParkDataRefreshedEvent.class));
     }
 
     @Test
@@ -55,6 +71,49 @@ class CarParkAvailabilityServiceTest {
         verify(carParkExternalApiRepository).fetchCarParkAvailabilityStreaming(any());
     }
 
+    @Test
+    void testAvailabilityUpdateKeepsCarParkTypeForFilters() {
+        // Arrange
+        CarPark albert = carPark("ACB", "1.30106", "103.85412", 0);
+        albert.setCarParkType("MULTI-STOREY CAR PARK");
+        doAnswer(invocation -> {
+            Consumer<CarParkAvailability> consumer = invocation.getArgument(0);
+            consumer.accept(new CarParkAvailability("ACB", 583, 120, "C"));
+            return null;
+        }).when(carParkExternalApiRepository).fetchCarParkAvailabilityStreaming(any());
+        // Apply the update to the row the way the statement does
+        when(carParkMySqlRepository.updateCarParkAvailabilityBatch("ACB", 583, 120, "SYSTEM"))
+                .thenAnswer(invocation -> {
+                    albert.setTotalLots(invocation.getArgument(1));
+                    albert.setAvailableLots(invocation.getArgument(2));
+                    return 1;
+                });
+
+        // Act
+        carParkAvailabilityService.updateCarParkAvailability();
+        CarParkSnapshot snapshot = CarParkSnapshot.fromCarParks(List.of(albert), 1L);
+        BitSet rows = snapshot.rowsMatching(
+                Map.of(CarParkSnapshot.Attribute.CAR_PARK_TYPE, List.of("MULTI-STOREY CAR PARK")));
+
+        // Assert
+        assertEquals("MULTI-STOREY CAR PARK", albert.getCarParkType());
+        assertTrue(rows.get(0));
+        assertEquals(120, snapshot.getAvailableLots(0));
+    }
+
+    @Test
+    void testAvailabilityStatementsDoNotWriteCarParkType() throws NoSuchMethodException {
+        // Arrange
+        Query single = CarParkMySqlRepository.class.getMethod("updateCarParkAvailabilityBatch",
+                String.class, Integer.class, Integer.class, String.class).getAnnotation(Query.class);
+        Query multiple = CarParkMySqlRepository.class.getMethod("updateCarParkAvailabilityBatchMultiple",
+                String.class, String.class, List.class, String.class).getAnnotation(Query.class);
+
+        // Act & Assert
+        assertFalse(single.value().contains("car_park_type"));
+        assertFalse(multiple.value().contains("car_park_type"));
+    }
+
     @Test
     void testScheduledAvailabilityUpdate() {
         // Arrange
@@ -73,7 +132,8 @@ class CarParkAvailabilityServiceTest {
         CarParkAvailabilityService service = new CarParkAvailabilityService(
                 carParkMySqlRepository,
                 carParkExternalApiRepository,
-                redisGeospatialService);
+                redisGeospatialService,
+                eventPublisher);
 
         // Assert
         assertNotNull(service);
@@ -85,7 +145,8 @@ class CarParkAvailabilityServiceTest {
         CarParkAvailabilityService service = new CarParkAvailabilityService(
                 carParkMySqlRepository,
                 carParkExternalApiRepository,
-                redisGeospatialService);
+                redisGeospatialService,
+                eventPublisher);
 
         // Assert
         assertNotNull(service);
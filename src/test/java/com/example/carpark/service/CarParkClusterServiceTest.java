@@ -0,0 +1,63 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.event.CarParkSnapshotUpdatedEvent;
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.dto.response.CarParkClusterDTO;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarParkClusterServiceTest {
+
+    private CarParkClusterService carParkClusterService;
+
+    @BeforeEach
+    void setUp() {
+        carParkClusterService = new CarParkClusterService();
+        carParkClusterService.onSnapshotUpdated(new CarParkSnapshotUpdatedEvent(CarParkSnapshot.fromCarParks(List.of(
+                carPark("ACB", "1.30106", "103.85412", 120),
+                carPark("ACM", "1.30110", "103.85420", 30),
+                carPark("TPM", "1.43000", "103.83000", 5)), 0x1234L)));
+    }
+
+    @Test
+    void testWorldTileAggregatesEveryCarPark() {
+        // Act
+        List<CarParkClusterDTO> clusters = carParkClusterService.findTile(0, 0, 0);
+
+        // Assert
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).getCount());
+        assertEquals(155, clusters.get(0).getAvailableLots());
+        assertEquals(new BigDecimal("1.344053"), clusters.get(0).getLatitude());
+        assertEquals(new BigDecimal("103.846107"), clusters.get(0).getLongitude());
+    }
+
+    @Test
+    void testStreetTileSplitsDistantCarParks() {
+        // Act
+        List<CarParkClusterDTO> albert = carParkClusterService.findTile(14, 12918, 8132);
+        List<CarParkClusterDTO> empty = carParkClusterService.findTile(14, 0, 0);
+
+        // Assert
+        assertEquals(1, albert.size());
+        assertEquals(2, albert.get(0).getCount());
+        assertEquals(150, albert.get(0).getAvailableLots());
+        assertTrue(empty.isEmpty());
+        assertEquals("W/\"s1234\"", carParkClusterService.tilesETag());
+    }
+
+    @Test
+    void testRejectsTileOutsideZoomGrid() {
+        // Act & Assert
+        CarParkException exception = assertThrows(CarParkException.class, () ->
+                carParkClusterService.findTile(2, 4, 0));
+
+        assertEquals(400, exception.getHttpStatus());
+    }
+}
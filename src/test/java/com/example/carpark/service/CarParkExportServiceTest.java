@@ -0,0 +1,145 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.entity.CarPark;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarParkExportServiceTest {
+
+    @Mock
+    private CarParkSnapshotService carParkSnapshotService;
+
+    @Mock
+    private CarParkMySqlRepository carParkMySqlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarParkExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new CarParkExportService(
+                carParkSnapshotService,
+                carParkMySqlRepository,
+                new ObjectMapper(),
+                transactionManager);
+    }
+
+    @Test
+    void testExportsSnapshotAsNdjson() throws IOException {
+        // Arrange
+        CarPark albert = new CarPark("ACB", "BLK 270/271 ALBERT CENTRE", new BigDecimal("1.30106"), new BigDecimal("103.85412"));
+        albert.setTotalLots(583);
+        albert.setAvailableLots(120);
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.getSnapshot()).thenReturn(CarParkSnapshot.fromCarParks(List.of(albert), 1L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(CarParkExportService.Format.NDJSON, out);
+
+        // Assert
+        assertEquals(
+                "{\"carParkNo\":\"ACB\",\"address\":\"BLK 270/271 ALBERT CENTRE\",\"latitude\":1.30106000,"
+                        + "\"longitude\":103.85412000,\"totalLots\":583,\"availableLots\":120}\n",
+                out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(carParkMySqlRepository, transactionManager);
+    }
+
+    @Test
+    void testExportsOneNdjsonObjectPerLine() throws IOException {
+        // Arrange
+        CarPark albert = new CarPark("ACB", "BLK 270/271 ALBERT CENTRE", new BigDecimal("1.30106"), new BigDecimal("103.85412"));
+        albert.setTotalLots(583);
+        albert.setAvailableLots(120);
+        CarPark bukitMerah = new CarPark("BM29", "BLK 29 BUKIT MERAH", new BigDecimal("1.28421"), new BigDecimal("103.81623"));
+        bukitMerah.setTotalLots(97);
+        bukitMerah.setAvailableLots(3);
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.getSnapshot())
+                .thenReturn(CarParkSnapshot.fromCarParks(List.of(albert, bukitMerah), 1L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(CarParkExportService.Format.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("", lines[2]);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int i = 0; i < 2; i++) {
+            assertTrue(lines[i].startsWith("{"), lines[i]);
+            assertTrue(objectMapper.readTree(lines[i]).has("carParkNo"));
+        }
+    }
+
+    @Test
+    void testDatabaseExportRunsInBoundedReadOnlyTransaction() throws IOException {
+        // Arrange
+        when(carParkSnapshotService.isLoaded()).thenReturn(false);
+        when(carParkMySqlRepository.streamActiveSummaries()).thenReturn(Stream.empty());
+
+        // Act
+        exportService.export(CarParkExportService.Format.NDJSON, new ByteArrayOutputStream());
+
+        // Assert
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertEquals(CarParkConstants.EXPORT_TIMEOUT_SECONDS, definition.getValue().getTimeout());
+    }
+
+    @Test
+    void testExportsDatabaseCursorAsCsvAndClosesIt() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        CarParkSummary summary = new SpelAwareProxyProjectionFactory().createProjection(CarParkSummary.class, Map.of(
+                "carParkNo", "ACB",
+                "address", "BLK 270, ALBERT CENTRE",
+                "latitude", new BigDecimal("1.30106000"),
+                "longitude", new BigDecimal("103.85412000"),
+                "totalLots", 583,
+                "availableLots", 120));
+        when(carParkSnapshotService.isLoaded()).thenReturn(false);
+        when(carParkMySqlRepository.streamActiveSummaries())
+                .thenReturn(Stream.of(summary).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.export(CarParkExportService.Format.CSV, out);
+
+        // Assert
+        assertEquals(
+                "car_park_no,address,latitude,longitude,total_lots,available_lots\n"
+                        + "ACB,\"BLK 270, ALBERT CENTRE\",1.30106000,103.85412000,583,120\n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+        verify(transactionManager).commit(any());
+    }
+}
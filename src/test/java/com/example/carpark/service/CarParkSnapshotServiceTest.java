@@ -0,0 +1,97 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshotFileRepository;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarParkSnapshotServiceTest {
+
+    @Mock
+    private CarParkMySqlRepository carParkMySqlRepository;
+
+    @Mock
+    private CarParkSnapshotFileRepository carParkSnapshotFileRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarParkSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = new CarParkSnapshotService(
+                carParkMySqlRepository,
+                carParkSnapshotFileRepository,
+                eventPublisher,
+                transactionManager);
+    }
+
+    @Test
+    void testRebuildReadsFromNewReadWriteTransaction() {
+        // Arrange
+        when(carParkMySqlRepository.findAllActive()).thenReturn(List.of(carPark("ACB", "1.30106", "103.85412", 10)));
+
+        // Act
+        snapshotService.onCarParkDataRefreshed(new CarParkDataRefreshedEvent("import"));
+
+        // Assert
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertFalse(definition.getValue().isReadOnly());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(transactionManager).commit(any());
+        assertTrue(snapshotService.isLoaded());
+    }
+
+    @Test
+    void testRequestsDuringRebuildAreCoalescedIntoOneMoreRebuild() throws Exception {
+        // Arrange
+        CountDownLatch firstReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRead = new CountDownLatch(1);
+        when(carParkMySqlRepository.findAllActive())
+                .thenAnswer(invocation -> {
+                    firstReadStarted.countDown();
+                    assertTrue(releaseFirstRead.await(5, TimeUnit.SECONDS));
+                    return List.of(carPark("ACB", "1.30106", "103.85412", 10));
+                })
+                .thenReturn(List.of(
+                        carPark("ACB", "1.30106", "103.85412", 10),
+                        carPark("ACM", "1.30200", "103.85412", 10)));
+        Thread running = new Thread(snapshotService::rebuildFromDatabase);
+        running.start();
+        assertTrue(firstReadStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            snapshotService.rebuildFromDatabase();
+        }
+        releaseFirstRead.countDown();
+        running.join(5000);
+
+        // Assert
+        assertFalse(running.isAlive());
+        verify(carParkMySqlRepository, times(2)).findAllActive();
+        assertEquals(2, snapshotService.getSnapshot().size());
+    }
+}
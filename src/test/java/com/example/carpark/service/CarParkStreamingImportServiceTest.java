@@ -1,16 +1,44 @@
 package com.example.carpark.service;
 
+import com.example.carpark.common.event.CarParkDataRefreshedEvent;
+import com.example.carpark.entity.CarPark;
 import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CarParkStreamingImportServiceTest {
 
+    private static final String CSV_CONTENT = """
+            car_park_no,address,x_coord,y_coord,car_park_type,type_of_parking_system,short_term_parking,free_parking,night_parking,car_park_decks,gantry_height,car_park_basement
+            ACB,BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK,30314.7936,31490.4942,BASEMENT CAR PARK,ELECTRONIC PARKING,WHOLE DAY,NO,YES,1,1.8,Y
+            """;
+
     @Mock
     private CarParkMySqlRepository carParkMySqlRepository;
 
@@ -20,6 +48,15 @@ class CarParkStreamingImportServiceTest {
     @Mock
     private CoordinateConversionService coordinateConversionService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path tempDir;
+
     @Test
     void testServiceInitialization() {
         // Arrange & Act
@@ -27,7 +64,9 @@ class CarParkStreamingImportServiceTest {
                 carParkMySqlRepository,
                 redisGeospatialService,
                 null, // GeometryFactory not needed for basic tests
-                coordinateConversionService);
+                coordinateConversionService,
+                new TransactionTemplate(transactionManager),
+                eventPublisher);
 
         // Assert
         assertNotNull(service);
@@ -40,9 +79,221 @@ class CarParkStreamingImportServiceTest {
                 carParkMySqlRepository,
                 redisGeospatialService,
                 null,
-                coordinateConversionService);
+                coordinateConversionService,
+                new TransactionTemplate(transactionManager),
+                eventPublisher);
 
         // Assert
         assertNotNull(service);
     }
+
+    @Test
+    void testImportSkipsUnchangedRows() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of());
+
+        service.importCarParkDataStreaming();
+
+        ArgumentCaptor<CarPark> saved = ArgumentCaptor.forClass(CarPark.class);
+        verify(carParkMySqlRepository).save(saved.capture());
+        assertNotNull(saved.getValue().getContentHash());
+        reset(carParkMySqlRepository, redisGeospatialService, eventPublisher);
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList()))
+                .thenReturn(List.of(saved.getValue()));
+
+        // Act
+        service.importCarParkDataStreaming();
+
+        // Assert
+        verify(carParkMySqlRepository, never()).save(any());
+        verifyNoInteractions(redisGeospatialService);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testImportRewritesChangedRows() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        CarPark existing = new CarPark("ACB", "OLD ADDRESS", new BigDecimal("1.3"), new BigDecimal("103.8"));
+        existing.setContentHash("stale");
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of(existing));
+
+        // Act
+        service.importCarParkDataStreaming();
+
+        // Assert
+        verify(carParkMySqlRepository).save(existing);
+        assertEquals("BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", existing.getAddress());
+        assertNotEquals("stale", existing.getContentHash());
+        verify(eventPublisher).publishEvent(any(CarParkDataRefreshedEvent.class));
+    }
+
+    @Test
+    void testImportRewritesUnchangedRowWithOutdatedDerivedColumns() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        String[] row = CSV_CONTENT.lines().skip(1).findFirst().orElseThrow().split(",");
+        CarPark existing = new CarPark("ACB", row[1], new BigDecimal("1.27"), new BigDecimal("103.84"));
+        existing.setContentHash(CarParkStreamingImportService.fingerprintRow(
+                row, CarParkStreamingImportService.DERIVATION_VERSION - 1, CarParkStreamingImportService.createRowDigest()));
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of(existing));
+
+        // Act
+        service.importCarParkDataStreaming();
+
+        // Assert
+        verify(carParkMySqlRepository).save(existing);
+        assertEquals(new BigDecimal("1.28000000"), existing.getLatitude());
+        assertNotNull(existing.getGeohash());
+        assertEquals(CarParkStreamingImportService.fingerprintRow(
+                row, CarParkStreamingImportService.DERIVATION_VERSION, CarParkStreamingImportService.createRowDigest()),
+                existing.getContentHash());
+    }
+
+    @Test
+    void testFailedSaveRollsBackChunkAndImportContinues() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder(CSV_CONTENT);
+        for (int i = 1; i <= 100; i++) {
+            csv.append("N").append(i)
+                    .append(",BLK ").append(i).append(",30314.7936,31490.4942,BASEMENT CAR PARK,ELECTRONIC PARKING,WHOLE DAY,NO,YES,1,1.8,Y\n");
+        }
+        CarParkStreamingImportService service = createServiceForCsv(csv.toString());
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of());
+        when(carParkMySqlRepository.save(any(CarPark.class))).thenAnswer(invocation -> {
+            CarPark carPark = invocation.getArgument(0);
+            if (carPark.getCarParkNo().equals("N50")) {
+                throw new IllegalStateException("Data too long for column");
+            }
+            return carPark;
+        });
+
+        // Act
+        service.importCarParkDataStreaming();
+
+        // Assert
+        verify(transactionManager, times(1)).rollback(any());
+        // The second chunk, then the location cache read
+        verify(transactionManager, times(2)).commit(any());
+        verify(carParkMySqlRepository).save(argThat(carPark -> carPark.getCarParkNo().equals("N100")));
+        verify(eventPublisher).publishEvent(any(CarParkDataRefreshedEvent.class));
+    }
+
+    @Test
+    void testRolledBackChunkCountsItsRowsOnlyAsFailed() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder(CSV_CONTENT);
+        for (int i = 1; i <= 101; i++) {
+            csv.append("N").append(i)
+                    .append(",BLK ").append(i).append(",30314.7936,31490.4942,BASEMENT CAR PARK,ELECTRONIC PARKING,WHOLE DAY,NO,YES,1,1.8,Y\n");
+        }
+        CarParkStreamingImportService service = createServiceForCsv(csv.toString());
+        // N1 is unchanged in the chunk that fails, N100 is unchanged in the chunk that commits
+        Map<String, CarPark> existing = Map.of("N1", unchanged(csv, "N1"), "N100", unchanged(csv, "N100"));
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenAnswer(invocation -> {
+            List<String> carParkNos = invocation.getArgument(0);
+            return carParkNos.stream().filter(existing::containsKey).map(existing::get).toList();
+        });
+        when(carParkMySqlRepository.save(any(CarPark.class))).thenAnswer(invocation -> {
+            CarPark carPark = invocation.getArgument(0);
+            if (carPark.getCarParkNo().equals("N50")) {
+                throw new IllegalStateException("Data too long for column");
+            }
+            return carPark;
+        });
+
+        // Act
+        CarParkStreamingImportService.ImportStats stats = service.importCarParkData(new StringReader(csv.toString()));
+
+        // Assert
+        assertEquals(100, stats.getTotalFailed());
+        assertEquals(1, stats.getTotalSkipped());
+        assertEquals(1, stats.getTotalImported());
+    }
+
+    @Test
+    void testLocationCacheIsRebuiltFromReadWriteTransaction() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of());
+        when(carParkMySqlRepository.findAll()).thenReturn(List.of());
+
+        // Act
+        service.importCarParkDataStreaming();
+
+        // Assert
+        InOrder inOrder = inOrder(transactionManager, carParkMySqlRepository, redisGeospatialService);
+        inOrder.verify(carParkMySqlRepository).save(any(CarPark.class));
+        inOrder.verify(transactionManager, calls(1)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        inOrder.verify(carParkMySqlRepository).findAll();
+        inOrder.verify(transactionManager, calls(1)).commit(any());
+        inOrder.verify(redisGeospatialService).cacheCarParkLocations(List.of());
+    }
+
+    @Test
+    void testImportFromGzipStream() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(CSV_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Act
+        service.importCarParkDataStreaming(new ByteArrayInputStream(compressed.toByteArray()));
+
+        // Assert
+        ArgumentCaptor<CarPark> saved = ArgumentCaptor.forClass(CarPark.class);
+        verify(carParkMySqlRepository).save(saved.capture());
+        assertEquals("ACB", saved.getValue().getCarParkNo());
+    }
+
+    @Test
+    void testImportFromPlainStream() throws IOException {
+        // Arrange
+        CarParkStreamingImportService service = createServiceForCsv(CSV_CONTENT);
+        when(carParkMySqlRepository.findActiveByCarParkNoIn(anyList())).thenReturn(List.of());
+
+        // Act
+        service.importCarParkDataStreaming(new ByteArrayInputStream(CSV_CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        verify(carParkMySqlRepository).save(any(CarPark.class));
+    }
+
+    private CarPark unchanged(CharSequence csv, String carParkNo) {
+        String[] row = csv.toString().lines()
+                .filter(line -> line.startsWith(carParkNo + ","))
+                .findFirst().orElseThrow().split(",");
+        CarPark carPark = new CarPark(carParkNo, row[1], new BigDecimal("1.28"), new BigDecimal("103.85"));
+        carPark.setContentHash(CarParkStreamingImportService.fingerprintRow(
+                row, CarParkStreamingImportService.DERIVATION_VERSION, CarParkStreamingImportService.createRowDigest()));
+        return carPark;
+    }
+
+    private CarParkStreamingImportService createServiceForCsv(String content) throws IOException {
+        Path csvFile = tempDir.resolve("carpark-data.csv");
+        Files.writeString(csvFile, content);
+        lenient().doAnswer(invocation -> {
+            double[] wgs84 = invocation.getArgument(1);
+            int count = invocation.getArgument(2);
+            for (int i = 0; i < count; i++) {
+                wgs84[i * 2] = 1.28;
+                wgs84[i * 2 + 1] = 103.85;
+            }
+            return null;
+        }).when(coordinateConversionService).convertSVY21ToWGS84Batch(any(), any(), anyInt());
+
+        CarParkStreamingImportService service = new CarParkStreamingImportService(
+                carParkMySqlRepository,
+                redisGeospatialService,
+                new GeometryFactory(),
+                coordinateConversionService,
+                new TransactionTemplate(transactionManager),
+                eventPublisher);
+        ReflectionTestUtils.setField(service, "csvFilePath", csvFile.toString());
+        return service;
+    }
 }
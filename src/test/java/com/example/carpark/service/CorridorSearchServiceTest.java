@@ -0,0 +1,139 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.constants.CarParkConstants;
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.dto.request.CorridorRequestDTO;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.snapshot.CarParkSnapshot;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static com.example.carpark.repository.snapshot.CarParkFixtures.carPark;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CorridorSearchServiceTest {
+
+    // Due east along latitude 1.30 from longitude 103.80 to 103.90, through 103.85
+    private static final String ROUTE = "_||F_mpxR?owH?owH";
+
+    @Mock
+    private CarParkSnapshotService carParkSnapshotService;
+
+    @Mock
+    private CarParkMySqlRepository carParkMySqlRepository;
+
+    private CorridorSearchService corridorSearchService;
+
+    @BeforeEach
+    void setUp() {
+        corridorSearchService = new CorridorSearchService(
+                carParkSnapshotService,
+                carParkMySqlRepository,
+                new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING), 4326));
+    }
+
+    @Test
+    void testFindAlongRouteOrdersByDistanceAlongRoute() {
+        // Arrange
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        when(carParkSnapshotService.getSnapshot()).thenReturn(CarParkSnapshot.fromCarParks(List.of(
+                carPark("LATE", "1.30100", "103.85000", 10),
+                carPark("EARLY", "1.29950", "103.82000", 10),
+                carPark("FAR", "1.31000", "103.85000", 10),
+                carPark("FULL", "1.30000", "103.81000", 0)), 1L));
+
+        // Act
+        List<CarParkResponseDTO> carParks = corridorSearchService.findAlongRoute(new CorridorRequestDTO(ROUTE, 300, 10));
+
+        // Assert
+        assertEquals(List.of("BLK EARLY", "BLK LATE"),
+                carParks.stream().map(CarParkResponseDTO::getAddress).collect(Collectors.toList()));
+        verifyNoInteractions(carParkMySqlRepository);
+    }
+
+    @Test
+    void testFindAlongRouteQueriesCorridorAreaWithoutSnapshot() {
+        // Arrange
+        when(carParkSnapshotService.isLoaded()).thenReturn(false);
+        when(carParkMySqlRepository.findSummariesWithAvailabilityInArea(any(Geometry.class))).thenReturn(List.of());
+
+        // Act
+        corridorSearchService.findAlongRoute(new CorridorRequestDTO(ROUTE, 300, 10));
+
+        // Assert
+        ArgumentCaptor<Geometry> area = ArgumentCaptor.forClass(Geometry.class);
+        verify(carParkMySqlRepository).findSummariesWithAvailabilityInArea(area.capture());
+        Envelope envelope = area.getValue().getEnvelopeInternal();
+        assertEquals(4326, area.getValue().getSRID());
+        assertEquals(103.80 - 0.0027, envelope.getMinX(), 0.0001);
+        assertEquals(103.90 + 0.0027, envelope.getMaxX(), 0.0001);
+        assertEquals(1.30 - 0.0027, envelope.getMinY(), 0.0001);
+        assertEquals(1.30 + 0.0027, envelope.getMaxY(), 0.0001);
+    }
+
+    @Test
+    void testCoverageIsTestedAgainstBufferOfFullRoute() {
+        // Arrange
+        // The same route with a 24 m kink north at 103.85, inside the simplification tolerance
+        String kinkedRoute = "_||F_mpxRk@owHj@owH";
+        when(carParkSnapshotService.isLoaded()).thenReturn(true);
+        // 295 m north of the kink, but 319 m from the straightened line
+        when(carParkSnapshotService.getSnapshot()).thenReturn(CarParkSnapshot.fromCarParks(List.of(
+                carPark("KINK", "1.30287", "103.85000", 10)), 1L));
+
+        // Act
+        List<CarParkResponseDTO> carParks = corridorSearchService.findAlongRoute(
+                new CorridorRequestDTO(kinkedRoute, 300, 10));
+
+        // Assert
+        assertEquals(List.of("BLK KINK"),
+                carParks.stream().map(CarParkResponseDTO::getAddress).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testRejectsRouteLongerThanLimit() {
+        // Act & Assert
+        // Due east along latitude 1.30 from longitude 103.00 to 104.00, about 111 km
+        CarParkException exception = assertThrows(CarParkException.class, () ->
+                corridorSearchService.findAlongRoute(new CorridorRequestDTO("_||F_etsR?_ibE", 300, 10)));
+
+        assertEquals(400, exception.getHttpStatus());
+        assertEquals(CarParkConstants.ERROR_ROUTE_TOO_LONG, exception.getMessage());
+        verifyNoInteractions(carParkSnapshotService, carParkMySqlRepository);
+    }
+
+    @Test
+    void testRejectsRouteWithTooManyPoints() {
+        // Arrange
+        String polyline = "_||F_mpxR" + "??".repeat(CarParkConstants.CORRIDOR_MAX_VERTICES);
+
+        // Act & Assert
+        CarParkException exception = assertThrows(CarParkException.class, () ->
+                corridorSearchService.findAlongRoute(new CorridorRequestDTO(polyline, 300, 10)));
+
+        assertEquals(400, exception.getHttpStatus());
+        assertEquals(CarParkConstants.ERROR_ROUTE_TOO_LONG, exception.getMessage());
+    }
+
+    @Test
+    void testRejectsMalformedPolyline() {
+        // Act & Assert
+        CarParkException exception = assertThrows(CarParkException.class, () ->
+                corridorSearchService.findAlongRoute(new CorridorRequestDTO("_||F", 300, 10)));
+
+        assertEquals(400, exception.getHttpStatus());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.geo.GeoHash;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeohashNearestSearchServiceTest {
+
+    private static final double LATITUDE = 1.30106;
+    private static final double LONGITUDE = 103.85412;
+
+    @Mock
+    private CarParkMySqlRepository carParkMySqlRepository;
+
+    private GeohashNearestSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GeohashNearestSearchService(carParkMySqlRepository, new GeometryFactory());
+    }
+
+    @Test
+    void testReturnsNearestFromCellBlockOrderedByDistance() {
+        // Arrange
+        CarParkSummary far = carPark("FAR", LATITUDE + 0.0010, LONGITUDE);
+        CarParkSummary near = carPark("NEAR", LATITUDE + 0.0001, LONGITUDE);
+        String cell = GeoHash.encode(LATITUDE, LONGITUDE, 6);
+        when(carParkMySqlRepository.findSummariesWithAvailabilityInGeohashBlock(eq(cell + "%"),
+                anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(new ArrayList<>(List.of(far, near)));
+
+        // Act
+        List<CarParkSummary> result = service.findNearest(LATITUDE, LONGITUDE, 2, 0);
+
+        // Assert
+        assertEquals(List.of(near, far), result);
+        verify(carParkMySqlRepository, times(1)).findSummariesWithAvailabilityInGeohashBlock(
+                anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString());
+        verify(carParkMySqlRepository, never()).findNearestSummariesWithPoint(any(Point.class), anyInt(), anyInt());
+    }
+
+    @Test
+    void testFallsBackToSpatialScanWhenCellsDoNotCoverPage() {
+        // Arrange
+        CarParkSummary fallback = carPark("FALLBACK", LATITUDE, LONGITUDE);
+        when(carParkMySqlRepository.findSummariesWithAvailabilityInGeohashBlock(
+                anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(List.of());
+        when(carParkMySqlRepository.findNearestSummariesWithPoint(any(Point.class), eq(5), eq(10)))
+                .thenReturn(List.of(fallback));
+
+        // Act
+        List<CarParkSummary> result = service.findNearest(LATITUDE, LONGITUDE, 5, 10);
+
+        // Assert
+        assertEquals(List.of(fallback), result);
+        // One statement per precision level from 6 down to 4
+        verify(carParkMySqlRepository, times(3)).findSummariesWithAvailabilityInGeohashBlock(
+                anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    private CarParkSummary carPark(String carParkNo, double latitude, double longitude) {
+        return new SpelAwareProxyProjectionFactory().createProjection(CarParkSummary.class, Map.of(
+                "carParkNo", carParkNo,
+                "latitude", BigDecimal.valueOf(latitude),
+                "longitude", BigDecimal.valueOf(longitude),
+                "availableLots", 10));
+    }
+}
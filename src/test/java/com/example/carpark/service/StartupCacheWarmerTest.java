@@ -0,0 +1,86 @@
+package com.example.carpark.service;
+
+import com.example.carpark.health.CacheWarmupHealthIndicator;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupCacheWarmerTest {
+
+    @Mock
+    private RedisGeospatialService redisGeospatialService;
+
+    @Mock
+    private CarParkSnapshotService carParkSnapshotService;
+
+    private StartupCacheWarmer startupCacheWarmer;
+    private CacheWarmupHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        startupCacheWarmer = new StartupCacheWarmer(redisGeospatialService, carParkSnapshotService);
+        ReflectionTestUtils.setField(startupCacheWarmer, "warmupTimeout", Duration.ofSeconds(5));
+        healthIndicator = new CacheWarmupHealthIndicator(startupCacheWarmer);
+    }
+
+    @Test
+    void testReadinessIsOutOfServiceBeforeWarmup() {
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void testWarmupPreloadsCachesThenReportsUp() {
+        // Act
+        startupCacheWarmer.warmUp().join();
+
+        // Assert
+        InOrder inOrder = inOrder(carParkSnapshotService);
+        inOrder.verify(carParkSnapshotService).loadFromFile();
+        inOrder.verify(carParkSnapshotService).rebuildFromDatabase();
+        verify(redisGeospatialService).refreshLocationCache();
+        assertTrue(startupCacheWarmer.isWarmedUp());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void testWarmupRunsOnItsOwnThreads() {
+        // Arrange
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+                .when(redisGeospatialService).refreshLocationCache();
+        doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+                .when(carParkSnapshotService).rebuildFromDatabase();
+
+        // Act
+        startupCacheWarmer.warmUp().join();
+        startupCacheWarmer.shutdown();
+
+        // Assert
+        assertFalse(threads.isEmpty());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("cache-warmup-")), threads.toString());
+    }
+
+    @Test
+    void testWarmupFailureStillOpensReadiness() {
+        // Arrange
+        doThrow(new RuntimeException("Redis down")).when(redisGeospatialService).refreshLocationCache();
+
+        // Act
+        assertThrows(RuntimeException.class, () -> startupCacheWarmer.warmUp().join());
+
+        // Assert
+        assertTrue(startupCacheWarmer.isWarmedUp());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.carpark.service;
+
+import com.example.carpark.common.exception.CarParkException;
+import com.example.carpark.dto.request.ViewportRequestDTO;
+import com.example.carpark.dto.response.CarParkResponseDTO;
+import com.example.carpark.repository.mysql.CarParkMySqlRepository;
+import com.example.carpark.repository.mysql.CarParkSummary;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewportCarParkServiceTest {
+
+    @Mock
+    private CarParkSnapshotService carParkSnapshotService;
+
+    @Mock
+    private CarParkMySqlRepository carParkMySqlRepository;
+
+    private ViewportCarParkService viewportCarParkService;
+
+    @BeforeEach
+    void setUp() {
+        viewportCarParkService = new ViewportCarParkService(
+                carParkSnapshotService,
+                carParkMySqlRepository,
+                new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING), 4326));
+    }
+
+    @Test
+    void testFindWithinFallsBackToSpatialIndexWithoutSnapshot() {
+        // Arrange
+        CarParkSummary summary = new SpelAwareProxyProjectionFactory().createProjection(CarParkSummary.class, Map.of(
+                "carParkNo", "ACB",
+                "address", "BLK 270/271 ALBERT CENTRE",
+                "latitude", new BigDecimal("1.30106000"),
+                "longitude", new BigDecimal("103.85412000"),
+                "totalLots", 583,
+                "availableLots", 0));
+        when(carParkSnapshotService.isLoaded()).thenReturn(false);
+        when(carParkMySqlRepository.findSummariesWithinViewport(any(Geometry.class), any(Point.class), eq(50)))
+                .thenReturn(List.of(summary));
+
+        // Act
+        List<CarParkResponseDTO> carParks = viewportCarParkService.findWithin(viewport("1.30", "103.85", "1.31", "103.86"));
+
+        // Assert
+        assertEquals(1, carParks.size());
+        assertEquals("BLK 270/271 ALBERT CENTRE", carParks.get(0).getAddress());
+        ArgumentCaptor<Geometry> captor = ArgumentCaptor.forClass(Geometry.class);
+        ArgumentCaptor<Point> centre = ArgumentCaptor.forClass(Point.class);
+        verify(carParkMySqlRepository).findSummariesWithinViewport(captor.capture(), centre.capture(), eq(50));
+        assertEquals(new Envelope(103.85, 103.86, 1.30, 1.31), captor.getValue().getEnvelopeInternal());
+        assertEquals(4326, captor.getValue().getSRID());
+        // Ordered by distance to the same centre the snapshot ranks by
+        assertEquals(103.855, centre.getValue().getX(), 1e-9);
+        assertEquals(1.305, centre.getValue().getY(), 1e-9);
+        assertEquals(4326, centre.getValue().getSRID());
+    }
+
+    @Test
+    void testFindWithinRejectsInvertedViewport() {
+        // Act & Assert
+        CarParkException exception = assertThrows(CarParkException.class, () ->
+                viewportCarParkService.findWithin(viewport("1.31", "103.85", "1.30", "103.86")));
+
+        assertEquals(400, exception.getHttpStatus());
+        verifyNoInteractions(carParkSnapshotService, carParkMySqlRepository);
+    }
+
+    private ViewportRequestDTO viewport(String minLatitude, String minLongitude, String maxLatitude,
+            String maxLongitude) {
+        return new ViewportRequestDTO(
+                new BigDecimal(minLatitude),
+                new BigDecimal(minLongitude),
+                new BigDecimal(maxLatitude),
+                new BigDecimal(maxLongitude),
+                50);
+    }
+}